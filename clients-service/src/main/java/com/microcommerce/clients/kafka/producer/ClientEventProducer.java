@@ -20,7 +20,7 @@ public class ClientEventProducer {
     
     private static final String CLIENT_EVENTS_TOPIC = "client-events";
 
-    public void publishClientCreated(Long clientId, String email, String firstName, String lastName, String role) {
+    public void publishClientCreated(Long clientId, String email, String firstName, String lastName, String phone, String role) {
         ClientEvent event = ClientEvent.builder()
                 .eventId(UUID.randomUUID().toString())
                 .eventType("CLIENT_CREATED")
@@ -28,6 +28,7 @@ public class ClientEventProducer {
                 .email(email)
                 .firstName(firstName)
                 .lastName(lastName)
+                .phone(phone)
                 .role(role)
                 .active(true)
                 .timestamp(LocalDateTime.now())
@@ -38,7 +39,7 @@ public class ClientEventProducer {
         publishEvent(event);
     }
 
-    public void publishClientUpdated(Long clientId, String email, String firstName, String lastName, String role, Boolean active) {
+    public void publishClientUpdated(Long clientId, String email, String firstName, String lastName, String phone, String role, Boolean active) {
         ClientEvent event = ClientEvent.builder()
                 .eventId(UUID.randomUUID().toString())
                 .eventType("CLIENT_UPDATED")
@@ -46,6 +47,7 @@ public class ClientEventProducer {
                 .email(email)
                 .firstName(firstName)
                 .lastName(lastName)
+                .phone(phone)
                 .role(role)
                 .active(active)
                 .timestamp(LocalDateTime.now())
@@ -45,6 +45,7 @@ public class AuthService {
                 clientResponse.getEmail(),
                 clientResponse.getFirstName(),
                 clientResponse.getLastName(),
+                clientResponse.getPhone(),
                 clientResponse.getRole()
             );
         } catch (Exception e) {
@@ -5,6 +5,7 @@ import com.microcommerce.clients.dto.response.ClientResponse;
 import com.microcommerce.clients.entity.Client;
 import com.microcommerce.clients.exception.ClientNotFoundException;
 import com.microcommerce.clients.exception.EmailAlreadyExistsException;
+import com.microcommerce.clients.kafka.producer.ClientEventProducer;
 import com.microcommerce.clients.repository.ClientRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,9 @@ public class ClientService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ClientEventProducer clientEventProducer;
+
     /**
      * Créer un nouveau client
      */
@@ -103,6 +107,7 @@ public class ClientService {
         }
 
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
         logger.info("Profile updated successfully for client ID: {}", clientId);
 
         return mapToClientResponse(updatedClient);
@@ -116,6 +121,7 @@ public class ClientService {
 
         client.setActive(!client.getActive());
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
 
         logger.info("Client ID: {} status changed to: {}", clientId, updatedClient.getActive());
         return mapToClientResponse(updatedClient);
@@ -162,6 +168,7 @@ public class ClientService {
 
         client.setRole(Client.Role.ADMIN);
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
 
         logger.info("Client {} promoted to admin successfully", clientId);
         return mapToClientResponse(updatedClient);
@@ -180,6 +187,7 @@ public class ClientService {
 
         client.setRole(Client.Role.CLIENT);
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
 
         logger.info("Admin {} demoted to client successfully", clientId);
         return mapToClientResponse(updatedClient);
@@ -198,6 +206,7 @@ public class ClientService {
 
         client.setActive(false);
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
 
         logger.info("Client {} deactivated successfully", clientId);
         return mapToClientResponse(updatedClient);
@@ -216,6 +225,7 @@ public class ClientService {
 
         client.setActive(true);
         Client updatedClient = clientRepository.save(client);
+        publishClientUpdated(updatedClient);
 
         logger.info("Client {} activated successfully", clientId);
         return mapToClientResponse(updatedClient);
@@ -231,6 +241,26 @@ public class ClientService {
         return new ClientStats(totalClients, activeClients, adminClients, regularClients);
     }
 
+    /**
+     * Les services abonnés à client-events (copie locale des profils dans orders-service)
+     * reçoivent l'état complet du client après chaque modification
+     */
+    private void publishClientUpdated(Client client) {
+        try {
+            clientEventProducer.publishClientUpdated(
+                client.getId(),
+                client.getEmail(),
+                client.getFirstName(),
+                client.getLastName(),
+                client.getPhone(),
+                client.getRole().name(),
+                client.getActive()
+            );
+        } catch (Exception e) {
+            logger.warn("Failed to publish client updated event for client: {}", client.getId(), e);
+        }
+    }
+
     private ClientResponse mapToClientResponse(Client client) {
         ClientResponse response = new ClientResponse();
         response.setId(client.getId());
@@ -1,10 +1,15 @@
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
+-- Index trigrammes pour la recherche du support (LIKE '%...%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
+-- Tables partitionnées par mois sur created_at : la clé de partition fait partie de la clé primaire
+-- et de tout index unique. L'unicité de id est garantie par la séquence, celle de order_number par
+-- le générateur Snowflake (ID de nœud loué par instance dans order_number_nodes) et vérifiée par idx_orders_order_number
 CREATE TABLE orders (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     client_id BIGINT NOT NULL,
-    order_number VARCHAR(50) UNIQUE NOT NULL,
-    status VARCHAR(20) NOT NULL DEFAULT 'CART' CHECK (status IN ('CART', 'PENDING', 'CONFIRMED', 'PAID', 'PREPARED', 'SHIPPED', 'DELIVERED', 'CANCELLED', 'REFUNDED')),
+    order_number VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'CART' CHECK (status IN ('CART', 'PENDING', 'CONFIRMED', 'PAID', 'PREPARED', 'SHIPPED', 'DELIVERED', 'CANCELLED', 'REFUNDED', 'STOCK_REJECTED')),
     payment_status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (payment_status IN ('PENDING', 'PAID', 'FAILED', 'REFUNDED')),
     
     subtotal DECIMAL(10,2) NOT NULL DEFAULT 0.00 CHECK (subtotal >= 0),
@@ -13,6 +18,8 @@ CREATE TABLE orders (
     discount_amount DECIMAL(10,2) NOT NULL DEFAULT 0.00 CHECK (discount_amount >= 0),
     total_amount DECIMAL(10,2) NOT NULL DEFAULT 0.00 CHECK (total_amount >= 0),
     
+    cart_version BIGINT NOT NULL DEFAULT 0,
+    
     client_email VARCHAR(255) NOT NULL,
     client_first_name VARCHAR(100) NOT NULL,
     client_last_name VARCHAR(100) NOT NULL,
@@ -21,9 +28,10 @@ CREATE TABLE orders (
     shipping_address JSONB NOT NULL,
     billing_address JSONB NOT NULL,
     
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     validated_at TIMESTAMP,
+    stock_requested_at TIMESTAMP, -- dernière demande de réservation du stock (StockReservationRetrier)
     paid_at TIMESTAMP,
     shipped_at TIMESTAMP,
     delivered_at TIMESTAMP,
@@ -31,12 +39,16 @@ CREATE TABLE orders (
     carrier VARCHAR(100),
     tracking_number VARCHAR(100),
     client_comment TEXT,
-    internal_comment TEXT
-);
+    internal_comment TEXT,
+    
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
 
+-- Pas de clé étrangère vers orders (elle devrait inclure created_at) : les articles sont
+-- supprimés avec leur commande par l'archivage
 CREATE TABLE order_items (
-    id BIGSERIAL PRIMARY KEY,
-    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    id BIGSERIAL,
+    order_id BIGINT NOT NULL,
     
     product_id BIGINT NOT NULL,
     product_name VARCHAR(255) NOT NULL,
@@ -49,13 +61,32 @@ CREATE TABLE order_items (
     image_url VARCHAR(500),
     unit_weight DECIMAL(8,2),
     
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Identifiants réservés par blocs de 50 côté Hibernate (OrderItem, allocationSize = 50),
+-- ce qui permet d'envoyer les insertions d'articles en lots JDBC
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+
+-- Pas de partition par défaut : dès qu'une ligne du mois M y tomberait, la création de la partition
+-- de M échouerait (lignes en conflit), et chaque tentative verrouillerait et parcourrait la partition
+-- par défaut. Les partitions sont créées orders.partitions.months-ahead mois à l'avance
+-- (OrderPartitionMaintainer, qui alerte si la couverture baisse) ; une insertion hors partition échoue.
+
+-- Panier actif de chaque client : l'unicité ne peut plus porter sur orders (partitionnée),
+-- cette table sert de cible à l'upsert de création du panier
+CREATE TABLE active_carts (
+    client_id BIGINT PRIMARY KEY,
+    order_id BIGINT NOT NULL
 );
 
+-- Conservé après archivage de la commande (piste d'audit)
 CREATE TABLE status_history (
     id BIGSERIAL PRIMARY KEY,
-    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    order_id BIGINT NOT NULL,
     previous_status VARCHAR(20),
     new_status VARCHAR(20) NOT NULL,
     comment TEXT,
@@ -63,16 +94,130 @@ CREATE TABLE status_history (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Outbox transactionnel : événements écrits dans la même transaction que la commande,
+-- puis relayés par lots ordonnés vers Kafka
+CREATE TABLE order_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Projection des ventes par produit, tenue à jour à la confirmation et à l'annulation des commandes
+CREATE TABLE product_sales_stats (
+    product_id BIGINT PRIMARY KEY,
+    units_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Ventes par produit et par jour (fenêtres glissantes jour / semaine)
+CREATE TABLE product_sales_daily (
+    sales_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    units_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, product_id)
+);
+
+-- Modèle de lecture : document JSON (format OrderResponse) de chaque commande,
+-- réécrit dans la transaction de chaque modification et servi tel quel par l'API
+CREATE TABLE order_view (
+    order_id BIGINT PRIMARY KEY,
+    client_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    document JSON NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Index des commandes archivées (fichiers compressés hors base), lu en repli par getOrderById
+CREATE TABLE order_archive_index (
+    order_id BIGINT PRIMARY KEY,
+    client_id BIGINT NOT NULL,
+    client_email VARCHAR(255) NOT NULL,
+    order_number VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_offset BIGINT NOT NULL,
+    length INTEGER NOT NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Copie locale des profils clients (topic client-events), lue à la création du panier
+-- et à la validation de la commande à la place d'un appel à clients-service
+CREATE TABLE client_profiles (
+    client_id BIGINT PRIMARY KEY,
+    email VARCHAR(255),
+    first_name VARCHAR(100),
+    last_name VARCHAR(100),
+    phone VARCHAR(20),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    event_at TIMESTAMP NOT NULL, -- horodatage du dernier événement appliqué
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Baux des ID de nœud Snowflake des numéros de commande (OrderNumberNodeLease) : chaque instance
+-- loue un nœud libre ou expiré au démarrage et le renouvelle ; libéré à l'arrêt
+CREATE TABLE order_number_nodes (
+    node_id SMALLINT PRIMARY KEY CHECK (node_id BETWEEN 0 AND 1023),
+    owner VARCHAR(64),
+    leased_until TIMESTAMP NOT NULL DEFAULT '-infinity'
+);
+INSERT INTO order_number_nodes (node_id) SELECT generate_series(0, 1023);
+
+-- Crée les partitions mensuelles de parent_table, du mois courant à months_ahead mois
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent_table TEXT, months_ahead INTEGER)
+RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::DATE;
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       parent_table || '_' || to_char(month_start, 'YYYY_MM'),
+                       parent_table,
+                       month_start,
+                       (month_start + INTERVAL '1 month')::DATE);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_monthly_partitions('orders', 3);
+SELECT ensure_monthly_partitions('order_items', 3);
+
 CREATE INDEX idx_orders_client_id ON orders(client_id);
+-- Résolution du panier actif (l'unicité est portée par active_carts)
+CREATE INDEX idx_orders_active_cart ON orders(client_id) WHERE status = 'CART';
+-- Expiration des paniers inactifs (CartExpirationSweeper)
+CREATE INDEX idx_orders_cart_updated ON orders(updated_at) WHERE status = 'CART';
+-- Commandes en attente de réservation du stock (StockReservationRetrier)
+CREATE INDEX idx_orders_pending_stock ON orders(stock_requested_at) WHERE status = 'PENDING';
 CREATE INDEX idx_orders_status ON orders(status);
-CREATE INDEX idx_orders_order_number ON orders(order_number);
+-- Unique avec la clé de partition (obligatoire sur une table partitionnée) : ne rejette qu'un doublon
+-- de même created_at, la garantie principale reste le bail d'ID de nœud (order_number_nodes)
+CREATE UNIQUE INDEX idx_orders_order_number ON orders(order_number, created_at);
 CREATE INDEX idx_orders_created_at ON orders(created_at);
 CREATE INDEX idx_orders_email ON orders(client_email);
+-- Recherche du support (OrderSearchRepository) : sous-chaîne d'email ou de nom (trigrammes),
+-- préfixe de numéro de commande (text_pattern_ops, indépendant de la collation)
+CREATE INDEX idx_orders_email_trgm ON orders USING gin (lower(client_email) gin_trgm_ops);
+CREATE INDEX idx_orders_last_name_trgm ON orders USING gin (lower(client_last_name) gin_trgm_ops);
+CREATE INDEX idx_orders_order_number_prefix ON orders(order_number text_pattern_ops);
+-- Pagination par curseur (keyset) : historique client et liste admin
+CREATE INDEX idx_orders_client_created_id ON orders(client_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_created_id ON orders(created_at DESC, id DESC);
 
 CREATE INDEX idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX idx_order_items_product_id ON order_items(product_id);
 CREATE INDEX idx_order_items_sku ON order_items(product_sku);
 
+CREATE INDEX idx_product_sales_stats_units ON product_sales_stats(units_sold DESC);
+
 CREATE INDEX idx_status_history_order_id ON status_history(order_id);
 CREATE INDEX idx_status_history_created_at ON status_history(created_at);
 
@@ -112,10 +257,8 @@ CREATE TRIGGER generate_order_number_trigger
 CREATE OR REPLACE FUNCTION log_status_change()
 RETURNS TRIGGER AS $$
 BEGIN
+    -- status_history est alimentée par orders-service (StatusTransitionRecorder), par lots asynchrones
     IF OLD.status IS DISTINCT FROM NEW.status THEN
-        INSERT INTO status_history (order_id, previous_status, new_status, comment)
-        VALUES (NEW.id, OLD.status, NEW.status, 'Automatic status change');
-        
         CASE NEW.status
             WHEN 'CONFIRMED' THEN NEW.validated_at = CURRENT_TIMESTAMP;
             WHEN 'PAID' THEN NEW.paid_at = CURRENT_TIMESTAMP;
@@ -133,31 +276,60 @@ CREATE TRIGGER status_change_trigger
     FOR EACH ROW
     EXECUTE FUNCTION log_status_change();
 
-CREATE OR REPLACE FUNCTION recalculate_totals()
+-- Libère l'emplacement du panier actif dès que la commande quitte le statut CART
+CREATE OR REPLACE FUNCTION release_active_cart()
 RETURNS TRIGGER AS $$
-DECLARE
-    order_record RECORD;
-    new_subtotal DECIMAL(10,2);
 BEGIN
-    SELECT * INTO order_record FROM orders WHERE id = COALESCE(NEW.order_id, OLD.order_id);
-    
-    SELECT COALESCE(SUM(subtotal), 0.00) INTO new_subtotal
-    FROM order_items 
-    WHERE order_id = order_record.id;
-    
-    UPDATE orders 
-    SET 
-        subtotal = new_subtotal,
-        total_amount = new_subtotal + shipping_cost + tax_amount - discount_amount
-    WHERE id = order_record.id;
-    
-    RETURN COALESCE(NEW, OLD);
+    IF OLD.status = 'CART' AND (TG_OP = 'DELETE' OR NEW.status <> 'CART') THEN
+        DELETE FROM active_carts WHERE client_id = OLD.client_id AND order_id = OLD.id;
+    END IF;
+    RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE TRIGGER recalculate_totals_trigger
-    AFTER INSERT OR UPDATE OR DELETE ON order_items
+CREATE TRIGGER release_active_cart_trigger
+    AFTER UPDATE OF status OR DELETE ON orders
     FOR EACH ROW
+    EXECUTE FUNCTION release_active_cart();
+
+-- Triggers par instruction (tables de transition) : un lot d'articles réécrit en un seul
+-- INSERT multi-lignes ne recalcule chaque commande qu'une fois, au lieu d'une fois par ligne
+CREATE OR REPLACE FUNCTION recalculate_totals()
+RETURNS TRIGGER AS $$
+BEGIN
+    WITH totals AS (
+        SELECT t.order_id, COALESCE(SUM(oi.subtotal), 0.00) AS new_subtotal
+        FROM (SELECT DISTINCT order_id FROM changed_items) t
+        LEFT JOIN order_items oi ON oi.order_id = t.order_id
+        GROUP BY t.order_id
+    )
+    UPDATE orders o
+    SET
+        subtotal = totals.new_subtotal,
+        total_amount = totals.new_subtotal + o.shipping_cost + o.tax_amount - o.discount_amount
+    FROM totals
+    WHERE o.id = totals.order_id;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER recalculate_totals_insert_trigger
+    AFTER INSERT ON order_items
+    REFERENCING NEW TABLE AS changed_items
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION recalculate_totals();
+
+CREATE TRIGGER recalculate_totals_update_trigger
+    AFTER UPDATE ON order_items
+    REFERENCING NEW TABLE AS changed_items
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION recalculate_totals();
+
+CREATE TRIGGER recalculate_totals_delete_trigger
+    AFTER DELETE ON order_items
+    REFERENCING OLD TABLE AS changed_items
+    FOR EACH STATEMENT
     EXECUTE FUNCTION recalculate_totals();
 
 INSERT INTO orders (
@@ -184,4 +356,7 @@ INSERT INTO order_items (
 (1, 5, 'AirPods Pro', 'APPLE-APP-GEN2', 279.99, 1, 279.99, '/images/airpodspro.jpg'),
 (2, 2, 'Samsung Galaxy S24', 'SAMSUNG-GS24-256', 899.99, 1, 899.99, '/images/galaxys24.jpg');
 
+INSERT INTO active_carts (client_id, order_id)
+SELECT client_id, id FROM orders WHERE status = 'CART';
+
 COMMIT;
@@ -20,8 +20,9 @@ CREATE TABLE products (
     sku VARCHAR(100) UNIQUE NOT NULL,
     image_url VARCHAR(500),
     active BOOLEAN DEFAULT true,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    -- NOT NULL : clés de tri de la pagination par curseur
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE INDEX idx_categories_parent ON categories(parent_id);
@@ -32,6 +33,16 @@ CREATE INDEX idx_products_active ON products(active);
 CREATE INDEX idx_products_stock ON products(stock_available);
 CREATE INDEX idx_products_price ON products(price);
 
+-- Pagination par curseur du catalogue public : un index (clé de tri, id) par tri autorisé,
+-- limité aux produits actifs. Parcouru dans les deux sens (asc / desc)
+CREATE INDEX idx_products_active_id ON products(id) WHERE active = true;
+CREATE INDEX idx_products_active_name_id ON products(name, id) WHERE active = true;
+CREATE INDEX idx_products_active_price_id ON products(price, id) WHERE active = true;
+CREATE INDEX idx_products_active_stock_id ON products(stock_available, id) WHERE active = true;
+CREATE INDEX idx_products_active_created_id ON products(created_at, id) WHERE active = true;
+CREATE INDEX idx_products_active_updated_id ON products(updated_at, id) WHERE active = true;
+CREATE INDEX idx_products_active_sku_id ON products(sku, id) WHERE active = true;
+
 CREATE OR REPLACE FUNCTION update_updated_at()
 RETURNS TRIGGER AS $$
 BEGIN
@@ -0,0 +1,71 @@
+package com.microcommerce.orders.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.entity.OrderArchiveEntry;
+import com.microcommerce.orders.repository.OrderArchiveEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lecture en repli des commandes archivées par {@link OrderArchiver} : une requête sur
+ * order_archive_index puis la lecture du seul membre gzip de la commande.
+ */
+@Component
+@Slf4j
+public class ArchivedOrderReader {
+
+    private final OrderArchiveEntryRepository orderArchiveEntryRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public ArchivedOrderReader(OrderArchiveEntryRepository orderArchiveEntryRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${orders.archive.directory:archive}") String directory) {
+        this.orderArchiveEntryRepository = orderArchiveEntryRepository;
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+    }
+
+    public Optional<OrderResponse> find(Long orderId) {
+        return orderArchiveEntryRepository.findById(orderId).map(this::read);
+    }
+
+    public Optional<String> findClientEmail(Long orderId) {
+        return orderArchiveEntryRepository.findById(orderId).map(OrderArchiveEntry::getClientEmail);
+    }
+
+    private OrderResponse read(OrderArchiveEntry entry) {
+        log.debug("Lecture de la commande archivée {} dans {}", entry.getOrderId(), entry.getFileName());
+
+        ByteBuffer buffer = ByteBuffer.allocate(entry.getLength());
+        try (FileChannel channel = FileChannel.open(directory.resolve(entry.getFileName()), StandardOpenOption.READ)) {
+            long position = entry.getFileOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Fin de fichier inattendue");
+                }
+                position += read;
+            }
+
+            try (InputStream json = new GZIPInputStream(new ByteArrayInputStream(buffer.array()))) {
+                return objectMapper.readValue(json, OrderResponse.class);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Commande archivée illisible, ID: " + entry.getOrderId()
+                    + " (" + entry.getFileName() + ")", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.microcommerce.orders.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.repository.AdvisoryLocks;
+import com.microcommerce.orders.repository.OrderRepository;
+import com.microcommerce.orders.service.OrderReader;
+import com.microcommerce.orders.view.OrderViewStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive hors base les commandes closes (DELIVERED, CANCELLED, REFUNDED, STOCK_REJECTED) plus anciennes
+ * que orders.archive.after-months.
+ *
+ * Chaque passage écrit un nouveau fichier orders-AAAAMMJJ-HHmmss-<uuid>.ndjson.gz : une commande par ligne
+ * JSON (format OrderResponse), chacune compressée en un membre gzip distinct. Le fichier reste
+ * lisible d'un bloc (zcat) et chaque commande peut être relue seule à partir de son décalage,
+ * enregistré dans order_archive_index.
+ *
+ * Par lot, dans une même transaction : écriture et fsync du fichier, index, puis suppression
+ * des commandes et articles. Si la transaction échoue, les octets déjà écrits restent orphelins
+ * (jamais référencés) et les commandes seront archivées au passage suivant.
+ * Le répertoire doit être partagé par toutes les instances (lecture en repli) : un seul passage
+ * à la fois dans le cluster (verrou consultatif), et chaque passage crée son propre fichier
+ * (CREATE_NEW) qu'il est seul à pouvoir supprimer s'il le laisse vide.
+ *
+ * En fin de passage, les partitions mensuelles vidées par l'archivage sont détachées et supprimées
+ * (voir OrderPartitionMaintainer.dropArchivedPartitions) : l'espace et les index ne gonflent pas.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String LOCK_NAME = "orders-archive";
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO order_archive_index (order_id, client_id, client_email, order_number, status, "
+                    + "created_at, file_name, file_offset, length, archived_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final OrderRepository orderRepository;
+    private final OrderReader orderReader;
+    private final OrderViewStore orderViewStore;
+    private final OrderPartitionMaintainer orderPartitionMaintainer;
+    private final AdvisoryLocks advisoryLocks;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int afterMonths;
+    private final int batchSize;
+    private final Path directory;
+    private final Counter archived;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         OrderReader orderReader,
+                         OrderViewStore orderViewStore,
+                         OrderPartitionMaintainer orderPartitionMaintainer,
+                         AdvisoryLocks advisoryLocks,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${orders.archive.enabled:true}") boolean enabled,
+                         @Value("${orders.archive.after-months:12}") int afterMonths,
+                         @Value("${orders.archive.batch-size:500}") int batchSize,
+                         @Value("${orders.archive.directory:archive}") String directory) {
+        this.orderRepository = orderRepository;
+        this.orderReader = orderReader;
+        this.orderViewStore = orderViewStore;
+        this.orderPartitionMaintainer = orderPartitionMaintainer;
+        this.advisoryLocks = advisoryLocks;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+        this.batchSize = batchSize;
+        this.directory = Path.of(directory);
+        this.archived = Counter.builder("orders.archive.archived").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        // Toutes les instances déclenchent le même cron : une seule archive
+        if (!advisoryLocks.runExclusively(LOCK_NAME, this::archiveExclusively)) {
+            log.debug("Archivage déjà en cours sur une autre instance");
+        }
+    }
+
+    private void archiveExclusively() {
+        LocalDateTime before = LocalDateTime.now().minusMonths(afterMonths);
+        String fileName = "orders-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + UUID.randomUUID() + ".ndjson.gz";
+        Path file = directory.resolve(fileName);
+        log.info("Archivage des commandes closes antérieures au {} dans {}", before, fileName);
+
+        long total = 0;
+        boolean created = false;
+        try {
+            Files.createDirectories(directory);
+            // CREATE_NEW : jamais d'écriture à la suite du fichier d'un autre passage
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                created = true;
+                long lastId = 0;
+                while (true) {
+                    List<Long> ids = orderRepository.findArchivableIds(before, lastId, batchSize);
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    Integer count = transactionTemplate.execute(status -> archiveBatch(ids, channel, fileName));
+                    total += count != null ? count : 0;
+                    lastId = ids.get(ids.size() - 1);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'archivage des commandes ({} archivées avant l'erreur)", total, e);
+            return;
+        } finally {
+            if (created && total == 0) {
+                deleteIfEmpty(file);
+            }
+        }
+
+        log.info("{} commandes archivées dans {}", total, fileName);
+
+        // Hors transaction (DETACH PARTITION ... CONCURRENTLY) ; mois entièrement antérieurs à la date limite
+        orderPartitionMaintainer.dropArchivedPartitions(YearMonth.from(before));
+    }
+
+    /**
+     * Fichier créé par ce passage et resté vide : aucun index ne le référence
+     */
+    private void deleteIfEmpty(Path file) {
+        try {
+            if (Files.size(file) == 0) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            log.warn("Suppression du fichier d'archive vide {} impossible: {}", file, e.getMessage());
+        }
+    }
+
+    private int archiveBatch(List<Long> ids, FileChannel channel, String fileName) {
+        List<OrderResponse> orders = new ArrayList<>(orderReader.findAll(ids));
+        orders.sort(Comparator.comparing(OrderResponse::getId));
+        LocalDateTime archivedAt = LocalDateTime.now();
+
+        List<Object[]> entries = new ArrayList<>(orders.size());
+        try {
+            for (OrderResponse order : orders) {
+                byte[] member = compress(objectMapper.writeValueAsBytes(order));
+                long offset = channel.position();
+                ByteBuffer buffer = ByteBuffer.wrap(member);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                entries.add(new Object[] {
+                        order.getId(), order.getClientId(), order.getClientEmail(), order.getOrderNumber(),
+                        order.getStatus(), Timestamp.valueOf(order.getCreatedAt()), fileName, offset,
+                        member.length, Timestamp.valueOf(archivedAt)
+                });
+            }
+            // Les données doivent être sur disque avant que la base ne les oublie
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture de l'archive impossible: " + fileName, e);
+        }
+
+        List<Long> archivedIds = orders.stream().map(OrderResponse::getId).toList();
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries);
+        // Commandes d'abord : la suppression des articles ne déclenche alors aucun recalcul de total
+        orderRepository.deleteByIdIn(archivedIds);
+        orderRepository.deleteItemsByOrderIdIn(archivedIds);
+        orderViewStore.deleteAll(archivedIds);
+
+        archived.increment(archivedIds.size());
+        return archivedIds.size();
+    }
+
+    private byte[] compress(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+            gzip.write('\n');
+        }
+        return bytes.toByteArray();
+    }
+}
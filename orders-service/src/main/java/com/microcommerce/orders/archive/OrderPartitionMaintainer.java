@@ -0,0 +1,144 @@
+package com.microcommerce.orders.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Crée à l'avance les partitions mensuelles de orders et order_items
+ * (fonction ensure_monthly_partitions de init-orders.sql), et supprime celles que l'archivage a vidées.
+ *
+ * Il n'y a pas de partition par défaut : une insertion dans un mois sans partition échoue.
+ * Métriques exposées :
+ * - orders.partitions.months.ahead{table} : mois couverts d'affilée après le mois courant
+ *   (alerte si inférieur à 1 : le mois prochain n'a pas de partition)
+ * - orders.partitions.dropped : partitions archivées détachées et supprimées
+ */
+@Component
+@Slf4j
+public class OrderPartitionMaintainer {
+
+    static final String[] PARTITIONED_TABLES = {"orders", "order_items"};
+
+    // Partitions nommées <table>_AAAA_MM par ensure_monthly_partitions
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(".*_(\\d{4})_(\\d{2})$");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final TreeMap<String, AtomicInteger> coveredMonths = new TreeMap<>();
+    private final Counter dropped;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${orders.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        for (String table : PARTITIONED_TABLES) {
+            AtomicInteger covered = new AtomicInteger();
+            coveredMonths.put(table, covered);
+            Gauge.builder("orders.partitions.months.ahead", covered, AtomicInteger::get)
+                    .tag("table", table)
+                    .register(meterRegistry);
+        }
+        this.dropped = Counter.builder("orders.partitions.dropped").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${orders.partitions.cron:0 0 3 * * *}")
+    public void ensurePartitions() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                jdbcTemplate.queryForList("SELECT ensure_monthly_partitions(?, ?)", table, monthsAhead);
+            } catch (Exception e) {
+                log.error("Impossible de créer les partitions mensuelles de {}", table, e);
+            }
+            checkCoverage(table);
+        }
+    }
+
+    /**
+     * Rétention : détache puis supprime les partitions mensuelles entièrement antérieures à {@code before}
+     * et vides, c'est-à-dire dont toutes les commandes (ou tous les articles) ont été archivées.
+     * Une partition qui contient encore des lignes (commande non close, article d'une commande
+     * plus récente) est conservée et réexaminée au passage suivant.
+     *
+     * DETACH ... CONCURRENTLY ne bloque ni les lectures ni les écritures de la table parente, mais
+     * ne peut pas s'exécuter dans une transaction : à appeler hors transaction.
+     */
+    public void dropArchivedPartitions(YearMonth before) {
+        for (String table : PARTITIONED_TABLES) {
+            monthlyPartitions(table).headMap(before).values().forEach(partition -> {
+                try {
+                    Boolean hasRows = jdbcTemplate.queryForObject(
+                            "SELECT EXISTS (SELECT 1 FROM \"" + partition + "\")", Boolean.class);
+                    if (Boolean.TRUE.equals(hasRows)) {
+                        log.debug("Partition {} conservée : lignes non archivées", partition);
+                        return;
+                    }
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION \"" + partition + "\" CONCURRENTLY");
+                    jdbcTemplate.execute("DROP TABLE \"" + partition + "\"");
+                    dropped.increment();
+                    log.info("Partition archivée {} détachée et supprimée", partition);
+                } catch (Exception e) {
+                    // Un détachement interrompu se termine par ALTER TABLE ... DETACH PARTITION ... FINALIZE
+                    log.error("Impossible de supprimer la partition archivée {}", partition, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Partitions mensuelles existantes de la table, par mois
+     */
+    TreeMap<YearMonth, String> monthlyPartitions(String table) {
+        TreeMap<YearMonth, String> partitions = new TreeMap<>();
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, table)) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(name);
+            if (matcher.matches()) {
+                partitions.put(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), name);
+            }
+        }
+        return partitions;
+    }
+
+    private void checkCoverage(String table) {
+        try {
+            Set<YearMonth> months = monthlyPartitions(table).keySet();
+            YearMonth current = YearMonth.now();
+            int ahead = -1;
+            while (months.contains(current.plusMonths(ahead + 1))) {
+                ahead++;
+            }
+            coveredMonths.get(table).set(ahead);
+            if (ahead < 1) {
+                // Sans partition par défaut, les commandes du mois non couvert seront refusées
+                log.error("Partitions de {} insuffisantes : {} mois couverts après le mois courant", table, Math.max(ahead, 0));
+            } else {
+                log.debug("Partitions de {} assurées pour les {} prochains mois", table, ahead);
+            }
+        } catch (Exception e) {
+            log.error("Impossible de vérifier les partitions de {}", table, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.microcommerce.orders.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Association clientId -> ID du panier actif, pour résoudre le panier par clé primaire.
+ * Une entrée peut être périmée (panier validé sur une autre instance) : l'appelant
+ * vérifie le statut de la commande chargée et invalide l'entrée au besoin.
+ */
+@Component
+public class CartIdCache {
+
+    private final Cache<Long, Long> cartIds;
+
+    public CartIdCache(@Value("${cart.id-cache.max-size:100000}") long maxSize,
+                       @Value("${cart.id-cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.cartIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    public Long get(Long clientId) {
+        return cartIds.getIfPresent(clientId);
+    }
+
+    public void put(Long clientId, Long cartId) {
+        cartIds.put(clientId, cartId);
+    }
+
+    public void evict(Long clientId) {
+        cartIds.invalidate(clientId);
+    }
+}
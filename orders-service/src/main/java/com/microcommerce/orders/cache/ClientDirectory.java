@@ -0,0 +1,88 @@
+package com.microcommerce.orders.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcommerce.orders.repository.ClientProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Profils clients lus par la création du panier et la validation des commandes, sans appel
+ * à clients-service : mémoire d'abord, puis table client_profiles alimentée par client-events.
+ *
+ * Les événements d'un client peuvent être consommés par une autre instance (partitions du
+ * groupe réparties) : le TTL borne le délai avant qu'une modification soit vue ici.
+ *
+ * Métriques exposées :
+ * - orders.clients.lookups{result=hit|loaded|unknown} : résultats des lectures
+ * - orders.clients.size : nombre de profils en mémoire
+ */
+@Component
+@Slf4j
+public class ClientDirectory {
+
+    private final ClientProfileRepository clientProfileRepository;
+    private final Cache<Long, ClientProfile> profiles;
+    private final Counter hits;
+    private final Counter loaded;
+    private final Counter unknown;
+
+    public ClientDirectory(ClientProfileRepository clientProfileRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${orders.client-directory.max-size:200000}") long maxSize,
+                           @Value("${orders.client-directory.ttl:5m}") Duration ttl) {
+        this.clientProfileRepository = clientProfileRepository;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.hits = Counter.builder("orders.clients.lookups").tag("result", "hit").register(meterRegistry);
+        this.loaded = Counter.builder("orders.clients.lookups").tag("result", "loaded").register(meterRegistry);
+        this.unknown = Counter.builder("orders.clients.lookups").tag("result", "unknown").register(meterRegistry);
+        Gauge.builder("orders.clients.size", profiles, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return le profil du client, vide si aucun événement client-events n'a encore été reçu pour lui
+     */
+    public Optional<ClientProfile> find(long clientId) {
+        ClientProfile profile = profiles.getIfPresent(clientId);
+        if (profile != null) {
+            hits.increment();
+            return Optional.of(profile);
+        }
+
+        Optional<ClientProfile> stored = clientProfileRepository.findById(clientId);
+        if (stored.isPresent()) {
+            loaded.increment();
+            profiles.put(clientId, stored.get());
+        } else {
+            unknown.increment();
+        }
+        return stored;
+    }
+
+    public void apply(ClientProfile profile) {
+        if (clientProfileRepository.upsert(profile)) {
+            profiles.put(profile.getClientId(), profile);
+        } else {
+            log.debug("Événement client {} du {} plus ancien que le profil enregistré, ignoré",
+                    profile.getClientId(), profile.getEventAt());
+            profiles.invalidate(profile.getClientId());
+        }
+    }
+
+    public void deactivate(long clientId, String email, LocalDateTime eventAt) {
+        clientProfileRepository.deactivate(clientId, email, eventAt);
+        profiles.invalidate(clientId);
+    }
+}
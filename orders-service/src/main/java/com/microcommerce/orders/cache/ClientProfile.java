@@ -0,0 +1,25 @@
+package com.microcommerce.orders.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copie locale et immuable de l'identité et des coordonnées d'un client,
+ * tenue à jour par le topic client-events.
+ */
+@Value
+@Builder
+public class ClientProfile {
+
+    long clientId;
+    String email;
+    String firstName;
+    String lastName;
+    String phone;
+    boolean active;
+
+    // Horodatage de l'événement client-events appliqué en dernier
+    LocalDateTime eventAt;
+}
@@ -0,0 +1,39 @@
+package com.microcommerce.orders.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Verdicts de propriété (orderId, principal) -> accès autorisé, pour éviter une lecture en base
+ * à chaque évaluation de @PreAuthorize. Seuls les verdicts qui ne dépendent plus du statut
+ * sont mis en cache : l'email d'une commande validée ne change plus. Le TTL court borne
+ * l'effet d'une éventuelle correction manuelle en base.
+ */
+@Component
+public class OrderOwnershipCache {
+
+    private record Key(Long orderId, String principal) {
+    }
+
+    private final Cache<Key, Boolean> verdicts;
+
+    public OrderOwnershipCache(@Value("${orders.ownership-cache.max-size:100000}") long maxSize,
+                               @Value("${orders.ownership-cache.ttl:60s}") Duration ttl) {
+        this.verdicts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Boolean get(Long orderId, String principal) {
+        return verdicts.getIfPresent(new Key(orderId, principal));
+    }
+
+    public void put(Long orderId, String principal, boolean owner) {
+        verdicts.put(new Key(orderId, principal), owner);
+    }
+}
@@ -0,0 +1,60 @@
+package com.microcommerce.orders.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Charge une fois au démarrage l'ensemble du catalogue actif depuis products-service.
+ * Les mises à jour suivantes arrivent uniquement par product-events.
+ */
+@Component
+@Slf4j
+public class ProductCatalogBootstrap {
+
+    private final ProductCatalogCache productCatalogCache;
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public ProductCatalogBootstrap(ProductCatalogCache productCatalogCache,
+                                   WebClient.Builder webClientBuilder,
+                                   @Value("${services.products.url}") String productsUrl,
+                                   @Value("${catalog.bootstrap.enabled:true}") boolean enabled,
+                                   @Value("${catalog.bootstrap.timeout:10s}") Duration timeout) {
+        this.productCatalogCache = productCatalogCache;
+        this.webClient = webClientBuilder.baseUrl(productsUrl).build();
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!enabled) {
+            log.info("Initialisation du cache catalogue désactivée");
+            return;
+        }
+
+        try {
+            List<ProductSnapshot> snapshots = webClient.get()
+                    .uri("/api/v1/products/snapshot")
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<List<ProductSnapshot>>() {})
+                    .block(timeout);
+
+            if (snapshots != null) {
+                productCatalogCache.putAll(snapshots);
+            }
+        } catch (Exception e) {
+            // Le cache se remplira au fil des événements product-events
+            log.warn("Impossible d'initialiser le cache catalogue depuis products-service: {}", e.getMessage());
+        }
+    }
+}
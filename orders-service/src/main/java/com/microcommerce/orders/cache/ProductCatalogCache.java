@@ -0,0 +1,96 @@
+package com.microcommerce.orders.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache local du catalogue produits, alimenté par le topic product-events
+ * et initialisé une fois au démarrage (voir {@link ProductCatalogBootstrap}).
+ *
+ * Métriques exposées :
+ * - orders.catalog.lookups{result=hit|miss} : résultats des lectures
+ * - orders.catalog.snapshot.age : âge de l'entrée servie au moment de la lecture
+ * - orders.catalog.size : nombre de produits en cache
+ * - orders.catalog.last.update.age : secondes écoulées depuis la dernière mise à jour reçue
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+
+    private final ProductSnapshotTable table = new ProductSnapshotTable();
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer snapshotAge;
+
+    private volatile long lastUpdateMillis;
+
+    public ProductCatalogCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("orders.catalog.lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("orders.catalog.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.snapshotAge = Timer.builder("orders.catalog.snapshot.age")
+                .description("Âge de l'entrée du cache catalogue au moment de la lecture")
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.size", table, ProductSnapshotTable::size)
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.last.update.age", this, ProductCatalogCache::secondsSinceLastUpdate)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductSnapshot> find(long productId) {
+        ProductSnapshot snapshot = table.get(productId);
+        if (snapshot == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        snapshotAge.record(System.currentTimeMillis() - snapshot.getRefreshedAt(), TimeUnit.MILLISECONDS);
+        return Optional.of(snapshot);
+    }
+
+    public void put(ProductSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        table.put(snapshot.getId(), snapshot.toBuilder().refreshedAt(now).build());
+        lastUpdateMillis = now;
+    }
+
+    public void putAll(Collection<ProductSnapshot> snapshots) {
+        snapshots.forEach(this::put);
+        log.info("Cache catalogue chargé: {} produits", table.size());
+    }
+
+    public void updateStock(long productId, int stockAvailable) {
+        long now = System.currentTimeMillis();
+        table.computeIfPresent(productId, snapshot -> snapshot.toBuilder()
+                .stockAvailable(stockAvailable)
+                .refreshedAt(now)
+                .build());
+        lastUpdateMillis = now;
+    }
+
+    public void evict(long productId) {
+        table.remove(productId);
+        lastUpdateMillis = System.currentTimeMillis();
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    private double secondsSinceLastUpdate() {
+        long last = lastUpdateMillis;
+        return last == 0L ? Double.NaN : (System.currentTimeMillis() - last) / 1000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.microcommerce.orders.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+
+/**
+ * Copie locale et immuable des informations produit nécessaires au panier.
+ * Immuable afin de pouvoir être lue sans verrou par les threads de requête.
+ */
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductSnapshot {
+
+    Long id;
+    String name;
+    String sku;
+    BigDecimal price;
+    Integer stockAvailable;
+    String imageUrl;
+    Boolean active;
+
+    // Instant (epoch ms) de la dernière mise à jour locale
+    @JsonIgnore
+    long refreshedAt;
+
+    @JsonIgnore
+    public boolean isAvailable() {
+        return !Boolean.FALSE.equals(active) && price != null && name != null && sku != null;
+    }
+
+    public boolean hasStockFor(int quantity) {
+        return stockAvailable == null || stockAvailable >= quantity;
+    }
+}
@@ -0,0 +1,141 @@
+package com.microcommerce.orders.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Table de hachage à adressage ouvert indexée par un id produit {@code long} primitif.
+ *
+ * Les lectures sont sans verrou ; les écritures, rares en comparaison, sont sérialisées.
+ * Les slots sont écrits en mode release et lus en mode acquire (AtomicLongArray,
+ * AtomicReferenceArray) : un lecteur qui voit une clé voit aussi la valeur écrite avant elle.
+ * Une table redimensionnée n'est publiée (champ volatile) qu'une fois remplie.
+ * Les suppressions ne font que vider la valeur du slot, qui est purgé au prochain redimensionnement.
+ * Les ids doivent être strictement positifs : 0 marque un slot libre.
+ */
+final class ProductSnapshotTable {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private static final class Table {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<ProductSnapshot> values;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size;
+    private int usedSlots;
+
+    ProductSnapshot get(long id) {
+        Table t = table;
+        int i = mix(id) & t.mask;
+        long k;
+        while ((k = t.keys.getAcquire(i)) != 0L) {
+            if (k == id) {
+                return t.values.getAcquire(i);
+            }
+            i = (i + 1) & t.mask;
+        }
+        return null;
+    }
+
+    synchronized void put(long id, ProductSnapshot snapshot) {
+        checkId(id);
+        Table t = table;
+        int i = slotOf(t, id);
+        if (t.keys.getPlain(i) == id) {
+            if (t.values.getPlain(i) == null) {
+                size++;
+            }
+            t.values.setRelease(i, snapshot);
+            return;
+        }
+        if ((usedSlots + 1) * 2 > t.capacity()) {
+            t = resize(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 4)));
+            i = slotOf(t, id);
+        }
+        // Valeur puis clé, en mode release : un lecteur qui voit la clé voit la valeur
+        t.values.setRelease(i, snapshot);
+        t.keys.setRelease(i, id);
+        usedSlots++;
+        size++;
+    }
+
+    /**
+     * Applique {@code updater} à la valeur existante ; sans effet si l'id est absent.
+     */
+    synchronized void computeIfPresent(long id, UnaryOperator<ProductSnapshot> updater) {
+        Table t = table;
+        int i = slotOf(t, id);
+        ProductSnapshot current = t.values.getPlain(i);
+        if (t.keys.getPlain(i) == id && current != null) {
+            t.values.setRelease(i, updater.apply(current));
+        }
+    }
+
+    synchronized void remove(long id) {
+        Table t = table;
+        int i = slotOf(t, id);
+        if (t.keys.getPlain(i) == id && t.values.getPlain(i) != null) {
+            t.values.setRelease(i, null);
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private Table resize(int capacity) {
+        Table old = table;
+        Table fresh = new Table(capacity);
+        int used = 0;
+        for (int j = 0; j < old.capacity(); j++) {
+            long key = old.keys.getPlain(j);
+            ProductSnapshot value = old.values.getPlain(j);
+            if (key != 0L && value != null) {
+                int i = slotOf(fresh, key);
+                fresh.values.setPlain(i, value);
+                fresh.keys.setPlain(i, key);
+                used++;
+            }
+        }
+        usedSlots = used;
+        // Écriture volatile : les slots remplis ci-dessus sont visibles de tout lecteur de la nouvelle table
+        table = fresh;
+        return fresh;
+    }
+
+    // Appelée sous le verrou des écritures : lectures simples
+    private static int slotOf(Table t, long id) {
+        int i = mix(id) & t.mask;
+        long k;
+        while ((k = t.keys.getPlain(i)) != 0L && k != id) {
+            i = (i + 1) & t.mask;
+        }
+        return i;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static void checkId(long id) {
+        if (id <= 0L) {
+            throw new IllegalArgumentException("ID produit invalide: " + id);
+        }
+    }
+}
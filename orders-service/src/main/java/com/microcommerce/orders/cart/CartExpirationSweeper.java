@@ -0,0 +1,157 @@
+package com.microcommerce.orders.cart;
+
+import com.microcommerce.orders.cache.CartIdCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Supprime les paniers (statut CART) inactifs depuis plus de cart.expiration.ttl, avec leurs articles.
+ *
+ * Travaille par tranches bornées, une transaction par tranche : les paniers sont réservés par
+ * SELECT ... FOR UPDATE SKIP LOCKED, si bien que plusieurs instances peuvent balayer en même temps
+ * sans s'attendre, et qu'un panier en cours de modification est simplement ignoré.
+ * Le trigger release_active_cart libère l'entrée active_carts du client.
+ *
+ * Les paniers tenus en mémoire par WriteBehindCartEngine sur cette instance sont épargnés : leur
+ * updated_at ne bouge qu'à l'écriture et ne reflète pas l'activité du client.
+ */
+@Component
+@Slf4j
+public class CartExpirationSweeper {
+
+    private static final String CLAIM_SQL = """
+            SELECT id, client_id FROM orders
+            WHERE status = 'CART' AND updated_at < ? AND NOT (id = ANY (?))
+            ORDER BY updated_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartIdCache cartIdCache;
+    private final Optional<WriteBehindCartEngine> writeBehindCartEngine;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Duration lockTimeout;
+
+    private final Counter removedCarts;
+    private final Counter removedItems;
+    private final DistributionSummary removedPerRun;
+    private final Timer lockWait;
+
+    private record ExpiredCart(long id, long clientId) {
+    }
+
+    public CartExpirationSweeper(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 CartIdCache cartIdCache,
+                                 Optional<WriteBehindCartEngine> writeBehindCartEngine,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cart.expiration.enabled:true}") boolean enabled,
+                                 @Value("${cart.expiration.ttl:30d}") Duration ttl,
+                                 @Value("${cart.expiration.chunk-size:500}") int chunkSize,
+                                 @Value("${cart.expiration.max-chunks-per-run:100}") int maxChunksPerRun,
+                                 @Value("${cart.expiration.lock-timeout:2s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cartIdCache = cartIdCache;
+        this.writeBehindCartEngine = writeBehindCartEngine;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.lockTimeout = lockTimeout;
+
+        this.removedCarts = Counter.builder("orders.cart.expiration.removed").register(meterRegistry);
+        this.removedItems = Counter.builder("orders.cart.expiration.items.removed").register(meterRegistry);
+        this.removedPerRun = DistributionSummary.builder("orders.cart.expiration.run.removed").register(meterRegistry);
+        this.lockWait = Timer.builder("orders.cart.expiration.lock.wait").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.expiration.interval-ms:600000}", initialDelayString = "${cart.expiration.initial-delay-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+        long total = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                Integer removed = transactionTemplate.execute(status -> sweepChunk(cutoff));
+                if (removed == null || removed == 0) {
+                    break;
+                }
+                total += removed;
+                if (removed < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'expiration des paniers ({} supprimés avant l'erreur)", total, e);
+        }
+
+        removedPerRun.record(total);
+        if (total > 0) {
+            log.info("{} paniers inactifs depuis plus de {} supprimés", total, ttl);
+        }
+    }
+
+    private int sweepChunk(Timestamp cutoff) {
+        // Borne l'attente sur des verrous autres que les lignes (ex. création de partition)
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+
+        Long[] held = writeBehindCartEngine.map(WriteBehindCartEngine::heldCartIds)
+                .orElse(Set.of())
+                .toArray(Long[]::new);
+
+        long start = System.nanoTime();
+        List<ExpiredCart> expired = jdbcTemplate.query(CLAIM_SQL,
+                statement -> {
+                    statement.setTimestamp(1, cutoff);
+                    statement.setArray(2, statement.getConnection().createArrayOf("bigint", held));
+                    statement.setInt(3, chunkSize);
+                },
+                (rs, rowNum) -> new ExpiredCart(rs.getLong(1), rs.getLong(2)));
+        lockWait.record(Duration.ofNanos(System.nanoTime() - start));
+
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", expired.stream().map(ExpiredCart::id).toList());
+        // Paniers d'abord : la suppression des articles ne déclenche alors aucun recalcul de total
+        int carts = namedParameterJdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", ids);
+        int items = namedParameterJdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (:ids)", ids);
+        namedParameterJdbcTemplate.update("DELETE FROM order_view WHERE order_id IN (:ids)", ids);
+
+        expired.forEach(cart -> cartIdCache.evict(cart.clientId()));
+        removedCarts.increment(carts);
+        removedItems.increment(items);
+        log.debug("Tranche d'expiration : {} paniers et {} articles supprimés", carts, items);
+        return carts;
+    }
+}
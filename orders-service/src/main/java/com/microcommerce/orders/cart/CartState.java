@@ -0,0 +1,168 @@
+package com.microcommerce.orders.cart;
+
+import com.microcommerce.orders.dto.response.OrderItemResponse;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.pricing.Money;
+import com.microcommerce.orders.pricing.OrderPricing;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * État en mémoire d'un panier actif. N'est lu et modifié que par le thread de son shard.
+ */
+final class CartState {
+
+    /**
+     * Ligne de panier immuable : une modification de quantité produit une nouvelle instance.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    static class Line {
+        Long itemId; // null tant que la ligne n'a pas été écrite en base
+        Long productId;
+        String productName;
+        String productSku;
+        long unitPrice; // centimes
+        int quantity;
+        String imageUrl;
+        LocalDateTime createdAt;
+
+        long subtotal() {
+            return OrderPricing.lineSubtotal(unitPrice, quantity);
+        }
+    }
+
+    /**
+     * Copie figée d'un panier à écrire en base.
+     */
+    @Value
+    static class Snapshot {
+        Long cartId;
+        Long clientId;
+        long version;
+        List<Line> lines;
+    }
+
+    private final Order header;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    private long version;
+    private long flushedVersion;
+
+    CartState(Order cart) {
+        // Seuls les champs d'en-tête sont utilisés ; les articles sont recopiés en lignes
+        this.header = cart;
+        for (OrderItem item : cart.getItems()) {
+            lines.put(item.getProductId(), Line.builder()
+                    .itemId(item.getId())
+                    .productId(item.getProductId())
+                    .productName(item.getProductName())
+                    .productSku(item.getProductSku())
+                    .unitPrice(item.getUnitPrice())
+                    .quantity(item.getQuantity())
+                    .imageUrl(item.getImageUrl())
+                    .createdAt(item.getCreatedAt())
+                    .build());
+        }
+        this.version = cart.getCartVersion();
+        this.flushedVersion = version;
+    }
+
+    Long cartId() {
+        return header.getId();
+    }
+
+    Long clientId() {
+        return header.getClientId();
+    }
+
+    Line line(Long productId) {
+        return lines.get(productId);
+    }
+
+    Map<Long, Integer> quantities() {
+        Map<Long, Integer> quantities = new HashMap<>();
+        lines.forEach((productId, line) -> quantities.put(productId, line.getQuantity()));
+        return quantities;
+    }
+
+    void putLine(Line line) {
+        lines.put(line.getProductId(), line);
+        version++;
+    }
+
+    boolean removeLine(Long productId) {
+        if (lines.remove(productId) == null) {
+            return false;
+        }
+        version++;
+        return true;
+    }
+
+    boolean isDirty() {
+        return version > flushedVersion;
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(header.getId(), header.getClientId(), version, List.copyOf(lines.values()));
+    }
+
+    void markFlushed(long flushed, Map<Long, Long> itemIds) {
+        flushedVersion = Math.max(flushedVersion, flushed);
+        lines.replaceAll((productId, line) -> line.getItemId() == null && itemIds.containsKey(productId)
+                ? line.toBuilder().itemId(itemIds.get(productId)).build()
+                : line);
+    }
+
+    OrderResponse toResponse() {
+        List<OrderItemResponse> items = lines.values().stream()
+                .map(line -> OrderItemResponse.builder()
+                        .id(line.getItemId())
+                        .productId(line.getProductId())
+                        .productName(line.getProductName())
+                        .productSku(line.getProductSku())
+                        .unitPrice(Money.toDecimal(line.getUnitPrice()))
+                        .quantity(line.getQuantity())
+                        .subtotal(Money.toDecimal(line.subtotal()))
+                        .imageUrl(line.getImageUrl())
+                        .createdAt(line.getCreatedAt())
+                        .build())
+                .toList();
+
+        long subtotal = 0L;
+        for (Line line : lines.values()) {
+            subtotal = Math.addExact(subtotal, line.subtotal());
+        }
+
+        return OrderResponse.builder()
+                .id(header.getId())
+                .clientId(header.getClientId())
+                .orderNumber(header.getOrderNumber())
+                .status(header.getStatus())
+                .paymentStatus(header.getPaymentStatus())
+                .subtotal(Money.toDecimal(subtotal))
+                .shippingCost(Money.toDecimal(header.getShippingCost()))
+                .taxAmount(Money.toDecimal(header.getTaxAmount()))
+                .discountAmount(Money.toDecimal(header.getDiscountAmount()))
+                .totalAmount(Money.toDecimal(OrderPricing.total(subtotal,
+                        header.getShippingCost(), header.getTaxAmount(), header.getDiscountAmount())))
+                .clientEmail(header.getClientEmail())
+                .clientFirstName(header.getClientFirstName())
+                .clientLastName(header.getClientLastName())
+                .clientPhone(header.getClientPhone())
+                .shippingAddress(header.getShippingAddress())
+                .billingAddress(header.getBillingAddress())
+                .createdAt(header.getCreatedAt())
+                .updatedAt(header.getUpdatedAt())
+                .items(items)
+                .totalItems(items.size())
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.microcommerce.orders.cart;
+
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.kafka.producer.OrderEventProducer;
+import com.microcommerce.orders.pricing.OrderPricing;
+import com.microcommerce.orders.repository.OrderItemRepository;
+import com.microcommerce.orders.repository.OrderRepository;
+import com.microcommerce.orders.view.OrderViewStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Écrit en base, dans sa propre transaction, l'état coalescé d'un panier en mémoire.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+class CartWriteBehindFlusher {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderEventProducer orderEventProducer;
+    private final OrderViewStore orderViewStore;
+
+    /**
+     * Réconcilie order_items avec l'instantané puis publie un seul ORDER_UPDATED.
+     * Idempotent : un instantané dont la version n'est pas plus récente que cart_version est ignoré.
+     *
+     * @return les IDs d'articles par produit après écriture ; vide si le panier n'existe plus
+     *         (supprimé par l'expiration ou déjà validé) : rien n'est écrit
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<Map<Long, Long>> flush(CartState.Snapshot snapshot) {
+        Order cart = orderRepository.findWithItemsById(snapshot.getCartId()).orElse(null);
+        if (cart == null || !"CART".equals(cart.getStatus())) {
+            return Optional.empty();
+        }
+        if (snapshot.getVersion() <= cart.getCartVersion()) {
+            return Optional.of(itemIds(cart));
+        }
+
+        Map<Long, CartState.Line> lines = snapshot.getLines().stream()
+                .collect(Collectors.toMap(CartState.Line::getProductId, Function.identity()));
+
+        for (OrderItem item : new ArrayList<>(cart.getItems())) {
+            CartState.Line line = lines.remove(item.getProductId());
+            if (line == null) {
+                cart.removeItem(item);
+                orderItemRepository.delete(item);
+            } else if (line.getQuantity() != item.getQuantity()) {
+                item.updateQuantity(line.getQuantity());
+            }
+        }
+
+        List<OrderItem> added = new ArrayList<>(lines.size());
+        for (CartState.Line line : lines.values()) {
+            OrderItem newItem = OrderItem.builder()
+                    .productId(line.getProductId())
+                    .productName(line.getProductName())
+                    .productSku(line.getProductSku())
+                    .unitPrice(line.getUnitPrice())
+                    .quantity(line.getQuantity())
+                    .subtotal(OrderPricing.lineSubtotal(line.getUnitPrice(), line.getQuantity()))
+                    .imageUrl(line.getImageUrl())
+                    .build();
+            cart.addItem(newItem);
+            added.add(newItem);
+        }
+        orderItemRepository.saveAll(added);
+
+        cart.recalculateTotal();
+        cart.setCartVersion(snapshot.getVersion());
+        Order savedCart = orderRepository.saveAndFlush(cart);
+        orderViewStore.refresh(savedCart);
+
+        // Un seul événement par écriture, quel que soit le nombre de clics coalescés
+        orderEventProducer.publishOrderUpdated(savedCart);
+
+        log.debug("Panier {} écrit en base en version {}", savedCart.getId(), snapshot.getVersion());
+        return Optional.of(itemIds(savedCart));
+    }
+
+    private Map<Long, Long> itemIds(Order cart) {
+        Map<Long, Long> ids = new HashMap<>();
+        cart.getItems().forEach(item -> ids.put(item.getProductId(), item.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,357 @@
+package com.microcommerce.orders.cart;
+
+import com.microcommerce.orders.cache.ProductSnapshot;
+import com.microcommerce.orders.dto.request.CartLineRequest;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.exception.CartUnavailableException;
+import com.microcommerce.orders.exception.OrderNotFoundException;
+import com.microcommerce.orders.pricing.Money;
+import com.microcommerce.orders.service.CartChanges;
+import com.microcommerce.orders.service.CartResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Moteur de panier en écriture différée (cart.write-behind.enabled=true).
+ *
+ * Les paniers actifs sont gardés en mémoire, répartis en shards par clientId. Chaque shard
+ * possède un unique thread qui applique toutes les mutations de ses paniers : aucun verrou,
+ * et les clics d'un même client sont appliqués dans l'ordre d'arrivée. Chaque shard est borné
+ * (LRU) ; un panier modifié est écrit en base avant d'être évincé. Si aucun panier ne peut être
+ * évincé (base indisponible), un nouveau panier est refusé (503) plutôt que d'agrandir le shard.
+ *
+ * Les modifications sont coalescées et écrites dans orders/order_items toutes les
+ * cart.write-behind.flush-interval-ms, lors de la validation de la commande et à l'arrêt.
+ * Chaque écriture publie un seul ORDER_UPDATED (articles complets et cartVersion) à la place
+ * des deltas ITEM_ADDED/ITEM_REMOVED du mode synchrone.
+ *
+ * Reprise après incident : en cas d'arrêt brutal, les modifications postérieures à la dernière
+ * écriture (au plus un intervalle) sont perdues et le panier repart de son état en base.
+ * Aucune commande n'est concernée : validateOrder écrit le panier avant de le lire. Un panier
+ * disparu de la base entre-temps (validé ailleurs, ou expiré) est retiré de la mémoire à sa
+ * prochaine écriture, ses modifications abandonnées ; le client repart du panier que lui
+ * résout CartResolver. CartExpirationSweeper ne supprime pas les paniers tenus ici. Les lectures
+ * par ID de commande (GET /orders/{id}) reflètent la dernière écriture, pas l'état en mémoire.
+ * Le mode suppose qu'un client est servi par une seule instance (routage par clientId).
+ *
+ * Les appelants ne doivent pas détenir de transaction : la requête attend le thread du shard,
+ * qui prend sa propre connexion (résolution du panier, écriture). Une requête qui retiendrait
+ * la sienne pourrait épuiser le pool (voir OrderService, points d'entrée NOT_SUPPORTED).
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindCartEngine {
+
+    // Écritures tentées au plus par admission d'un panier dans un shard plein
+    private static final int MAX_EVICTION_FLUSHES = 3;
+
+    private final CartResolver cartResolver;
+    private final CartWriteBehindFlusher flusher;
+    private final Shard[] shards;
+    // cartId -> clientId, pour retrouver le shard depuis validateOrder
+    private final Map<Long, Long> cartOwners = new ConcurrentHashMap<>();
+
+    private final Counter mutations;
+    private final Counter flushes;
+    private final Counter rejections;
+    private final Counter goneCarts;
+
+    public WriteBehindCartEngine(CartResolver cartResolver,
+                                 CartWriteBehindFlusher flusher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cart.write-behind.shards:16}") int shardCount,
+                                 @Value("${cart.write-behind.max-carts:50000}") int maxCarts) {
+        this.cartResolver = cartResolver;
+        this.flusher = flusher;
+        this.shards = new Shard[shardCount];
+        int maxCartsPerShard = Math.max(1, maxCarts / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, maxCartsPerShard);
+        }
+
+        this.mutations = Counter.builder("orders.cart.writebehind.mutations").register(meterRegistry);
+        this.flushes = Counter.builder("orders.cart.writebehind.flushes").register(meterRegistry);
+        this.rejections = Counter.builder("orders.cart.writebehind.rejections").register(meterRegistry);
+        this.goneCarts = Counter.builder("orders.cart.writebehind.gone").register(meterRegistry);
+        Gauge.builder("orders.cart.writebehind.carts", cartOwners, Map::size).register(meterRegistry);
+
+        log.info("Panier en écriture différée activé - {} shards, {} paniers max", shardCount, maxCarts);
+    }
+
+    public OrderResponse getCart(Long clientId) {
+        return shardOf(clientId).call(() -> loadOrCreate(clientId).toResponse());
+    }
+
+    public OrderResponse addToCart(Long clientId, ProductSnapshot product, int quantity) {
+        return shardOf(clientId).call(() -> {
+            CartState cart = loadOrCreate(clientId);
+            CartState.Line existing = cart.line(product.getId());
+
+            int requestedQuantity = (existing != null ? existing.getQuantity() : 0) + quantity;
+            if (!product.hasStockFor(requestedQuantity)) {
+                throw new IllegalArgumentException("Stock insuffisant pour le produit: " + product.getId());
+            }
+
+            cart.putLine(existing != null
+                    ? existing.toBuilder().quantity(requestedQuantity).build()
+                    : newLine(product, quantity));
+            mutations.increment();
+            return cart.toResponse();
+        });
+    }
+
+    /**
+     * Mise à jour groupée : toutes les lignes sont appliquées en mémoire, puis écrites
+     * ensemble au prochain passage (un seul ORDER_UPDATED).
+     */
+    public OrderResponse updateCart(Long clientId, List<CartLineRequest> lines, Map<Long, ProductSnapshot> products) {
+        return shardOf(clientId).call(() -> {
+            CartState cart = loadOrCreate(clientId);
+            Map<Long, Integer> changes = CartChanges.resolve(cart.quantities(), lines, products);
+
+            changes.forEach((productId, quantity) -> {
+                CartState.Line existing = cart.line(productId);
+                if (quantity == 0) {
+                    cart.removeLine(productId);
+                } else if (existing != null) {
+                    cart.putLine(existing.toBuilder().quantity(quantity).build());
+                } else {
+                    cart.putLine(newLine(products.get(productId), quantity));
+                }
+            });
+            mutations.increment(changes.size());
+            return cart.toResponse();
+        });
+    }
+
+    public OrderResponse removeFromCart(Long clientId, Long productId) {
+        return shardOf(clientId).call(() -> {
+            CartState cart = shardOf(clientId).carts.get(clientId);
+            if (cart == null) {
+                cart = cartResolver.find(clientId)
+                        .map(order -> shardOf(clientId).admit(new CartState(order)))
+                        .orElseThrow(() -> new OrderNotFoundException("Aucun panier trouvé pour le client: " + clientId));
+            }
+
+            if (!cart.removeLine(productId)) {
+                throw new IllegalArgumentException("Produit non trouvé dans le panier");
+            }
+            mutations.increment();
+            return cart.toResponse();
+        });
+    }
+
+    /**
+     * Écrit le panier en base puis le retire de la mémoire. Sans effet si l'ID n'est pas
+     * un panier en mémoire. Appelé avant toute lecture en base du panier à valider.
+     */
+    public void flushAndEvictCart(Long cartId) {
+        Long clientId = cartOwners.get(cartId);
+        if (clientId == null) {
+            return;
+        }
+        Shard shard = shardOf(clientId);
+        shard.call(() -> {
+            CartState cart = shard.carts.get(clientId);
+            if (cart != null) {
+                // En cas d'échec, le panier reste en mémoire et la validation échoue ;
+                // un panier disparu est retiré, la validation le trouvera introuvable
+                flush(cart);
+                shard.forget(cart);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * IDs des paniers tenus en mémoire, écrits ou non : CartExpirationSweeper les épargne.
+     */
+    public Set<Long> heldCartIds() {
+        return Set.copyOf(cartOwners.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flushDirtyCarts() {
+        List<CompletableFuture<?>> pending = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            pending.add(shard.submit(() -> {
+                // Copie : un panier disparu est retiré du shard pendant le parcours
+                shard.carts.values().stream()
+                        .filter(CartState::isDirty)
+                        .toList()
+                        .forEach(cart -> flushQuietly(shard, cart));
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Arrêt du panier en écriture différée : écriture des paniers modifiés");
+        try {
+            flushDirtyCarts();
+        } finally {
+            for (Shard shard : shards) {
+                shard.executor.shutdown();
+            }
+        }
+    }
+
+    private CartState.Line newLine(ProductSnapshot product, int quantity) {
+        // Le prix et le libellé restent ceux de l'ajout initial, comme en mode synchrone
+        return CartState.Line.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .productSku(product.getSku())
+                .unitPrice(Money.toMinor(product.getPrice()))
+                .quantity(quantity)
+                .imageUrl(product.getImageUrl())
+                .build();
+    }
+
+    private CartState loadOrCreate(Long clientId) {
+        Shard shard = shardOf(clientId);
+        CartState cart = shard.carts.get(clientId);
+        if (cart == null) {
+            cart = shard.admit(new CartState(cartResolver.getOrCreate(clientId)));
+        }
+        return cart;
+    }
+
+    /**
+     * @return false si le panier n'existe plus en base : l'entrée en mémoire est à retirer
+     */
+    private boolean flush(CartState cart) {
+        if (!cart.isDirty()) {
+            return true;
+        }
+        CartState.Snapshot snapshot = cart.snapshot();
+        Optional<Map<Long, Long>> itemIds = flusher.flush(snapshot);
+        if (itemIds.isEmpty()) {
+            goneCarts.increment();
+            log.warn("Panier {} du client {} introuvable ou déjà validé : retiré de la mémoire, modifications abandonnées",
+                    cart.cartId(), cart.clientId());
+            return false;
+        }
+        cart.markFlushed(snapshot.getVersion(), itemIds.get());
+        flushes.increment();
+        return true;
+    }
+
+    private void flushQuietly(Shard shard, CartState cart) {
+        try {
+            if (!flush(cart)) {
+                shard.forget(cart);
+            }
+        } catch (Exception e) {
+            // Le panier reste modifié et sera réécrit au passage suivant
+            log.error("Erreur lors de l'écriture différée du panier {}", cart.cartId(), e);
+        }
+    }
+
+    private Shard shardOf(Long clientId) {
+        return shards[(int) Math.floorMod(clientId, (long) shards.length)];
+    }
+
+    private final class Shard {
+
+        private final ExecutorService executor;
+        // Ordre d'accès : la première entrée est le panier le moins récemment utilisé
+        private final LinkedHashMap<Long, CartState> carts = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxCarts;
+
+        Shard(int index, int maxCarts) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cart-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.maxCarts = maxCarts;
+        }
+
+        /**
+         * Ajoute un panier au shard ; s'il est plein, évince d'abord un panier.
+         *
+         * @throws CartUnavailableException si aucun panier ne peut être évincé : le shard ne grossit jamais
+         *                                  au-delà de sa borne, même base indisponible
+         */
+        CartState admit(CartState cart) {
+            if (carts.size() >= maxCarts && !evictOne()) {
+                rejections.increment();
+                throw new CartUnavailableException("Panier temporairement indisponible, veuillez réessayer");
+            }
+            carts.put(cart.clientId(), cart);
+            cartOwners.put(cart.cartId(), cart.clientId());
+            return cart;
+        }
+
+        void forget(CartState cart) {
+            carts.remove(cart.clientId());
+            cartOwners.remove(cart.cartId());
+        }
+
+        /**
+         * Évince le panier le moins récemment utilisé qui peut l'être : non modifié, écrit en base
+         * avec succès ou disparu de la base. Un panier dont l'écriture échoue est conservé avec ses
+         * modifications.
+         */
+        private boolean evictOne() {
+            int attempts = 0;
+            Iterator<CartState> iterator = carts.values().iterator();
+            while (iterator.hasNext() && attempts < MAX_EVICTION_FLUSHES) {
+                CartState cart = iterator.next();
+                if (cart.isDirty()) {
+                    attempts++;
+                    try {
+                        flush(cart);
+                    } catch (Exception e) {
+                        log.error("Panier {} non évincé : écriture en base impossible, modifications conservées", cart.cartId(), e);
+                        continue;
+                    }
+                }
+                iterator.remove();
+                cartOwners.remove(cart.cartId());
+                return true;
+            }
+            return false;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(task, executor);
+        }
+
+        <T> T call(Supplier<T> task) {
+            try {
+                return submit(task).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.microcommerce.orders.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microcommerce.orders.cache.ProductCatalogCache;
+import com.microcommerce.orders.cache.ProductSnapshot;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client non bloquant de recherche produits vers products-service.
+ *
+ * Placé derrière {@link ProductCatalogCache} : seuls les IDs absents du cache partent
+ * vers products-service. Les recherches concurrentes reçues pendant une courte fenêtre
+ * sont fusionnées (un seul appel par ID et par fenêtre, tous IDs confondus) en un appel
+ * GET /api/v1/products/batch. En cas d'erreur, de timeout ou de circuit ouvert, on se
+ * replie sur l'instantané local s'il est apparu entre-temps.
+ *
+ * Les IDs inconnus ou inactifs pour products-service sont retenus pendant catalog.lookup.miss-ttl :
+ * ils ne repartent pas à chaque fenêtre. Un produit publié entre-temps (product-events) est servi
+ * par le cache catalogue, consulté en premier.
+ */
+@Component
+@Slf4j
+public class ProductLookupClient {
+
+    private final ProductCatalogCache productCatalogCache;
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final Cache<Long, Boolean> misses;
+
+    private final Counter remoteCalls;
+    private final Counter cachedMisses;
+    private final Counter fallbacks;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private Map<Long, Sinks.One<ProductSnapshot>> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    public ProductLookupClient(ProductCatalogCache productCatalogCache,
+                               WebClient.Builder webClientBuilder,
+                               MeterRegistry meterRegistry,
+                               @Value("${services.products.url}") String productsUrl,
+                               @Value("${catalog.lookup.batch-window:5ms}") Duration batchWindow,
+                               @Value("${catalog.lookup.max-batch-size:100}") int maxBatchSize,
+                               @Value("${catalog.lookup.timeout:500ms}") Duration timeout,
+                               @Value("${catalog.lookup.miss-ttl:30s}") Duration missTtl,
+                               @Value("${catalog.lookup.miss-max-size:100000}") long missMaxSize,
+                               @Value("${catalog.lookup.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                               @Value("${catalog.lookup.circuit-breaker.wait-duration-in-open-state:10s}") Duration openStateDuration) {
+        this.productCatalogCache = productCatalogCache;
+        this.webClient = webClientBuilder.baseUrl(productsUrl).build();
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(missMaxSize)
+                .expireAfterWrite(missTtl)
+                .build();
+        this.circuitBreaker = CircuitBreaker.of("products-service", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .waitDurationInOpenState(openStateDuration)
+                .build());
+
+        this.remoteCalls = Counter.builder("orders.catalog.remote.calls").register(meterRegistry);
+        this.fallbacks = Counter.builder("orders.catalog.remote.fallbacks").register(meterRegistry);
+        this.cachedMisses = Counter.builder("orders.catalog.remote.cached.misses").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.catalog.remote.batch.size").register(meterRegistry);
+    }
+
+    /**
+     * Résout un produit : cache local d'abord, puis appel groupé vers products-service.
+     * Le Mono est vide si le produit est inconnu ou inactif.
+     */
+    public Mono<ProductSnapshot> lookup(long productId) {
+        ProductSnapshot cached = productCatalogCache.find(productId).orElse(null);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (misses.getIfPresent(productId) != null) {
+            cachedMisses.increment();
+            return Mono.empty();
+        }
+
+        Sinks.One<ProductSnapshot> sink;
+        boolean flushNow = false;
+        synchronized (lock) {
+            sink = pending.computeIfAbsent(productId, id -> Sinks.one());
+            if (pending.size() >= maxBatchSize) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                Schedulers.parallel().schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (flushNow) {
+            Schedulers.parallel().schedule(this::flush);
+        }
+        return sink.asMono();
+    }
+
+    private void flush() {
+        Map<Long, Sinks.One<ProductSnapshot>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                flushScheduled = false;
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            flushScheduled = false;
+        }
+
+        List<Long> ids = List.copyOf(batch.keySet());
+        remoteCalls.increment();
+        batchSizes.record(ids.size());
+        log.debug("Recherche groupée de {} produits vers products-service", ids.size());
+
+        webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/products/batch").queryParam("ids", ids).build())
+                .retrieve()
+                .bodyToFlux(ProductSnapshot.class)
+                .collectList()
+                .timeout(timeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .subscribe(
+                        products -> complete(batch, products),
+                        error -> fallback(batch, error));
+    }
+
+    private void complete(Map<Long, Sinks.One<ProductSnapshot>> batch, List<ProductSnapshot> products) {
+        for (ProductSnapshot product : products) {
+            productCatalogCache.put(product);
+            Sinks.One<ProductSnapshot> sink = batch.remove(product.getId());
+            if (sink != null) {
+                sink.tryEmitValue(product);
+            }
+        }
+        // IDs inconnus ou inactifs : retenus jusqu'à expiration de miss-ttl
+        batch.forEach((productId, sink) -> {
+            misses.put(productId, Boolean.TRUE);
+            sink.tryEmitEmpty();
+        });
+    }
+
+    private void fallback(Map<Long, Sinks.One<ProductSnapshot>> batch, Throwable error) {
+        log.warn("Recherche groupée vers products-service en échec ({} produits), repli sur le cache local: {}",
+                batch.size(), error.getMessage());
+        fallbacks.increment();
+        batch.forEach((productId, sink) -> productCatalogCache.find(productId)
+                .ifPresentOrElse(sink::tryEmitValue, sink::tryEmitEmpty));
+    }
+}
@@ -0,0 +1,147 @@
+package com.microcommerce.orders.controller;
+
+import com.microcommerce.orders.dto.response.CursorPageResponse;
+import com.microcommerce.orders.dto.response.ProductSalesResponse;
+import com.microcommerce.orders.export.OrderExporter;
+import com.microcommerce.orders.service.OrderService;
+import com.microcommerce.orders.service.SalesStatsService;
+import com.microcommerce.orders.view.OrderDocument;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/orders")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Administration - Commandes", description = "API d'administration pour la consultation des commandes et des ventes")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminOrderController {
+
+    private final OrderService orderService;
+    private final SalesStatsService salesStatsService;
+    private final OrderExporter orderExporter;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Lister toutes les commandes (admin)", 
+               description = "Liste toutes les commandes, de la plus récente à la plus ancienne, par pagination par curseur (sans total)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Liste des commandes récupérée avec succès"),
+        @ApiResponse(responseCode = "400", description = "Curseur invalide"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Rôle administrateur requis")
+    })
+    public ResponseEntity<CursorPageResponse<OrderDocument>> getAllOrders(
+            @Parameter(description = "Curseur de la page suivante (optionnel)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "20")
+            @RequestParam(defaultValue = "20") int size) {
+        
+        log.info("Demande de liste des commandes par admin - taille: {}", size);
+        return ResponseEntity.ok(orderService.getAllOrders(cursor, size));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rechercher des commandes (support)", 
+               description = "Recherche les commandes validées par partie de l'email, début du numéro de commande "
+                       + "et/ou partie du nom du client (critères cumulables, 3 caractères minimum), des plus récentes aux plus anciennes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Résultats de la recherche"),
+        @ApiResponse(responseCode = "400", description = "Aucun critère ou critère trop court"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Rôle administrateur requis")
+    })
+    public ResponseEntity<List<OrderDocument>> searchOrders(
+            @Parameter(description = "Partie de l'email du client", example = "dupont@")
+            @RequestParam(required = false) String email,
+            @Parameter(description = "Début du numéro de commande")
+            @RequestParam(required = false) String orderNumber,
+            @Parameter(description = "Partie du nom du client", example = "dupont")
+            @RequestParam(required = false) String lastName,
+            @Parameter(description = "Nombre de résultats (max 50)", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return ResponseEntity.ok(orderService.searchOrders(email, orderNumber, lastName, limit));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exporter les commandes (admin)", 
+               description = "Exporte en NDJSON (une commande par ligne, avec ses articles) les commandes validées, "
+                       + "filtrées par période de création et statut. Le flux est écrit au fil de la lecture en base.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export en cours d'écriture"),
+        @ApiResponse(responseCode = "400", description = "Période invalide"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Rôle administrateur requis")
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Début de période inclus (ISO-8601)", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fin de période exclue (ISO-8601)", example = "2024-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Statut des commandes (optionnel)", example = "DELIVERED")
+            @RequestParam(required = false) String status) {
+
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        log.info("Export des commandes par admin - du {} au {}, statut: {}", from, to, status);
+
+        StreamingResponseBody body = out -> orderExporter.export(from, to, status, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/stats/top-products")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Meilleures ventes (admin)", 
+               description = "Classement des produits par unités vendues, cumulé (all), du jour (day) ou des 7 derniers jours (week)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Classement récupéré avec succès"),
+        @ApiResponse(responseCode = "400", description = "Fenêtre invalide"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Rôle administrateur requis")
+    })
+    public ResponseEntity<List<ProductSalesResponse>> getTopProducts(
+            @Parameter(description = "Fenêtre : all, day ou week", example = "week")
+            @RequestParam(defaultValue = "all") String window,
+            @Parameter(description = "Nombre de produits (max 100)", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        log.info("Demande des meilleures ventes par admin - fenêtre: {}, limite: {}", window, limit);
+        return ResponseEntity.ok(salesStatsService.getTopSellers(window, limit));
+    }
+
+    @GetMapping("/stats/products/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ventes d'un produit (admin)", 
+               description = "Cumul des ventes d'un produit : unités, chiffre d'affaires et nombre de commandes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistiques récupérées avec succès"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Rôle administrateur requis")
+    })
+    public ResponseEntity<ProductSalesResponse> getProductSales(
+            @Parameter(description = "ID du produit") @PathVariable Long productId) {
+        
+        return ResponseEntity.ok(salesStatsService.getProductSales(productId));
+    }
+}
@@ -1,10 +1,17 @@
 package com.microcommerce.orders.controller;
 
 import com.microcommerce.orders.dto.request.AddToCartRequest;
+import com.microcommerce.orders.dto.request.BulkCartRequest;
+import com.microcommerce.orders.dto.response.CursorPageResponse;
 import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.dto.response.StatusHistoryResponse;
 import com.microcommerce.orders.service.OrderService;
+import com.microcommerce.orders.stream.OrderStatusStream;
+import com.microcommerce.orders.view.OrderDocument;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -15,9 +22,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -28,6 +39,7 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderStatusStream orderStatusStream;
 
     // ===== Gestion du panier =====
 
@@ -67,6 +79,27 @@ public class OrderController {
         return ResponseEntity.ok(updatedCart);
     }
 
+    @PostMapping("/cart/bulk")
+    @Operation(summary = "Mettre à jour plusieurs lignes du panier",
+               description = "Ajoute, modifie ou retire plusieurs produits du panier en une seule transaction "
+                       + "(restauration d'un panier, nouvelle commande à partir d'une ancienne)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Panier mis à jour avec succès"),
+        @ApiResponse(responseCode = "400", description = "Données invalides, produit indisponible ou stock insuffisant"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    public ResponseEntity<OrderResponse> updateCart(
+            @Valid @RequestBody BulkCartRequest request,
+            HttpServletRequest httpRequest) {
+
+        Long clientId = (Long) httpRequest.getAttribute("userId");
+        log.info("Mise à jour groupée du panier - Client: {}, Lignes: {}", clientId, request.getLines().size());
+
+        OrderResponse updatedCart = orderService.updateCart(clientId, request);
+        return ResponseEntity.ok(updatedCart);
+    }
+
     @DeleteMapping("/cart/remove/{productId}")
     @Operation(summary = "Supprimer un produit du panier", 
                description = "Supprime un produit du panier du client connecté")
@@ -94,18 +127,38 @@ public class OrderController {
     @Operation(summary = "Récupérer une commande par ID", 
                description = "Récupère les détails d'une commande spécifique")
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Commande trouvée"),
+        @ApiResponse(responseCode = "200", description = "Commande trouvée",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderResponse.class))),
         @ApiResponse(responseCode = "401", description = "Non authentifié"),
         @ApiResponse(responseCode = "404", description = "Commande non trouvée"),
         @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
     @PreAuthorize("hasRole('ADMIN') or @orderService.isOrderOwner(#orderId, authentication.principal)")
-    public ResponseEntity<OrderResponse> getOrder(
+    public ResponseEntity<byte[]> getOrder(
             @Parameter(description = "ID de la commande") @PathVariable Long orderId) {
         
         log.info("Récupération de la commande: {}", orderId);
-        OrderResponse order = orderService.getOrderById(orderId);
-        return ResponseEntity.ok(order);
+        // Document pré-sérialisé (order_view) renvoyé sans repasser par Jackson
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(orderService.getOrderJson(orderId));
+    }
+
+    @GetMapping("/{orderId}/history")
+    @Operation(summary = "Historique des statuts d'une commande", 
+               description = "Récupère les changements de statut d'une commande, du plus ancien au plus récent")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Historique récupéré avec succès"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "404", description = "Commande non trouvée"),
+        @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    @PreAuthorize("hasRole('ADMIN') or @orderService.isOrderOwner(#orderId, authentication.principal)")
+    public ResponseEntity<List<StatusHistoryResponse>> getOrderStatusHistory(
+            @Parameter(description = "ID de la commande") @PathVariable Long orderId) {
+        
+        log.info("Récupération de l'historique des statuts de la commande: {}", orderId);
+        return ResponseEntity.ok(orderService.getStatusHistory(orderId));
     }
 
     @GetMapping("/my-orders")
@@ -140,7 +193,7 @@ public class OrderController {
         @ApiResponse(responseCode = "401", description = "Non authentifié"),
         @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
     })
-    public ResponseEntity<Page<OrderResponse>> getMyOrders(
+    public ResponseEntity<Page<OrderDocument>> getMyOrders(
             @Parameter(description = "Numéro de page (commence à 0)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Taille de la page", example = "10")
@@ -153,13 +206,76 @@ public class OrderController {
         log.info("Récupération des commandes pour le client: {} - Page: {}, Taille: {}, Sort: {}", 
                 clientId, page, size, sort);
         
-        Page<OrderResponse> orders = orderService.getOrdersByClient(clientId, page, size, sort);
+        Page<OrderDocument> orders = orderService.getOrdersByClient(clientId, page, size, sort);
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/my-orders/cursor")
+    @Operation(
+        summary = "Récupérer mes commandes (pagination par curseur)", 
+        description = """
+            Récupère les commandes du client connecté, de la plus récente à la plus ancienne,
+            par pagination par curseur : le coût d'une page ne dépend pas de sa profondeur
+            et aucun total n'est calculé.
+            
+            **Accès :** Authentifié (client connecté uniquement)
+            
+            **Paramètres :**
+            - `cursor` : Jeton `nextCursor` de la page précédente (absent pour la première page)
+            - `size` : Nombre d'éléments par page (max 100)
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Commandes récupérées avec succès"),
+        @ApiResponse(responseCode = "400", description = "Curseur invalide"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    public ResponseEntity<CursorPageResponse<OrderDocument>> getMyOrdersByCursor(
+            @Parameter(description = "Curseur de la page suivante (optionnel)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de la page", example = "10")
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        
+        Long clientId = (Long) request.getAttribute("userId");
+        log.info("Récupération des commandes par curseur pour le client: {} - Taille: {}", clientId, size);
+        
+        return ResponseEntity.ok(orderService.getOrdersByClient(clientId, cursor, size));
+    }
+
+    @GetMapping(value = "/my-orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Suivre les changements de statut de mes commandes", 
+        description = """
+            Flux Server-Sent Events des changements de statut des commandes du client connecté,
+            à la place d'une interrogation périodique de `/my-orders`.
+            
+            **Accès :** Authentifié (client connecté uniquement)
+            
+            **Événements :**
+            - `order-status` : `{orderId, orderNumber, previousStatus, status, changedAt}`
+            - commentaire `heartbeat` périodique
+            
+            La connexion est fermée après `orders.status-stream.timeout` ou si le client ne lit
+            pas assez vite : se reconnecter puis relire `/my-orders` une fois.
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Flux ouvert"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public SseEmitter streamMyOrderStatus(HttpServletRequest request) {
+        Long clientId = (Long) request.getAttribute("userId");
+        log.info("Ouverture du flux des statuts pour le client: {}", clientId);
+        
+        return orderStatusStream.subscribe(clientId);
+    }
+
     @PostMapping("/{orderId}/validate")
     @Operation(summary = "Valider une commande", 
-               description = "Valide une commande en statut CART pour la transformer en commande")
+               description = "Valide une commande en statut CART (statut PENDING). La réservation du stock par "
+                       + "products-service la fait ensuite passer en CONFIRMED ou STOCK_REJECTED (voir /my-orders/stream)")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Commande validée avec succès"),
         @ApiResponse(responseCode = "400", description = "Commande ne peut pas être validée"),
@@ -175,4 +291,23 @@ public class OrderController {
         OrderResponse validatedOrder = orderService.validateOrder(orderId);
         return ResponseEntity.ok(validatedOrder);
     }
+
+    @PostMapping("/{orderId}/cancel")
+    @Operation(summary = "Annuler une commande", 
+               description = "Annule une commande validée ; le stock est restauré par products-service")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Commande annulée avec succès"),
+        @ApiResponse(responseCode = "400", description = "Commande ne peut pas être annulée"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "404", description = "Commande non trouvée"),
+        @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
+    })
+    @PreAuthorize("hasRole('ADMIN') or @orderService.isOrderOwner(#orderId, authentication.principal)")
+    public ResponseEntity<OrderResponse> cancelOrder(
+            @Parameter(description = "ID de la commande à annuler") @PathVariable Long orderId) {
+        
+        log.info("Annulation de la commande: {}", orderId);
+        OrderResponse cancelledOrder = orderService.cancelOrder(orderId);
+        return ResponseEntity.ok(cancelledOrder);
+    }
 }
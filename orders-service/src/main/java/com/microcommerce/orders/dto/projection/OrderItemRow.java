@@ -0,0 +1,23 @@
+package com.microcommerce.orders.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Article de commande lu directement en DTO, avec l'ID de sa commande pour le regroupement.
+ * Montants en centimes.
+ */
+public record OrderItemRow(
+        Long orderId,
+        Long id,
+        Long productId,
+        String productName,
+        String productDescription,
+        String productSku,
+        Long unitPrice,
+        Integer quantity,
+        Long subtotal,
+        String imageUrl,
+        BigDecimal unitWeight,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,35 @@
+package com.microcommerce.orders.dto.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * En-tête de commande lu directement en DTO (expression constructeur JPQL) :
+ * ni entité gérée ni copie de contrôle des modifications. Montants en centimes.
+ */
+public record OrderRow(
+        Long id,
+        Long clientId,
+        String orderNumber,
+        String status,
+        String paymentStatus,
+        Long subtotal,
+        Long shippingCost,
+        Long taxAmount,
+        Long discountAmount,
+        Long totalAmount,
+        String clientEmail,
+        String clientFirstName,
+        String clientLastName,
+        String clientPhone,
+        String shippingAddress,
+        String billingAddress,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime validatedAt,
+        LocalDateTime paidAt,
+        LocalDateTime shippedAt,
+        LocalDateTime deliveredAt,
+        String carrier,
+        String trackingNumber,
+        String clientComment) {
+}
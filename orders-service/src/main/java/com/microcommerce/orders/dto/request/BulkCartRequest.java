@@ -0,0 +1,17 @@
+package com.microcommerce.orders.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCartRequest {
+
+    // Appliquées dans l'ordre, en une seule transaction
+    @NotEmpty(message = "Au moins une ligne est obligatoire")
+    @Size(max = 200, message = "200 lignes au maximum par requête")
+    private List<@Valid CartLineRequest> lines;
+}
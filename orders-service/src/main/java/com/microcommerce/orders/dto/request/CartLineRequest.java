@@ -0,0 +1,35 @@
+package com.microcommerce.orders.dto.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartLineRequest {
+
+    public enum Action {
+        ADD,    // ajoute la quantité à celle déjà présente
+        SET,    // fixe la quantité (0 retire la ligne)
+        REMOVE  // retire la ligne
+    }
+
+    @NotNull(message = "L'action est obligatoire")
+    private Action action;
+
+    @NotNull(message = "L'ID du produit est obligatoire")
+    private Long productId;
+
+    // Obligatoire pour ADD (au moins 1) et SET, ignorée pour REMOVE
+    @Min(value = 0, message = "La quantité ne peut pas être négative")
+    private Integer quantity;
+
+    @AssertTrue(message = "La quantité est obligatoire pour ADD (au moins 1) et SET")
+    public boolean isQuantityValid() {
+        return switch (action == null ? Action.REMOVE : action) {
+            case ADD -> quantity != null && quantity >= 1;
+            case SET -> quantity != null;
+            case REMOVE -> true;
+        };
+    }
+}
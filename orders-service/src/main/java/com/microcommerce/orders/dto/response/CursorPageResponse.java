@@ -0,0 +1,20 @@
+package com.microcommerce.orders.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page obtenue par pagination par curseur (keyset) : pas de total,
+ * seulement un jeton opaque pour demander la page suivante.
+ */
+@Data
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    // À repasser tel quel dans le paramètre "cursor" ; null sur la dernière page
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.microcommerce.orders.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class ProductSalesResponse {
+    private Long productId;
+    private Long unitsSold;
+    private BigDecimal revenue;
+    private Long orderCount;
+}
@@ -0,0 +1,16 @@
+package com.microcommerce.orders.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class StatusHistoryResponse {
+    private String previousStatus;
+    private String newStatus;
+    private String comment;
+    private Long userId;
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,7 @@
 package com.microcommerce.orders.entity;
 
+import com.microcommerce.orders.pricing.MinorUnitsConverter;
+import com.microcommerce.orders.pricing.OrderPricing;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,10 +13,13 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
@@ -32,7 +37,9 @@ public class Order {
     @Column(name = "client_id", nullable = false)
     private Long clientId;
 
-    @Column(name = "order_number", unique = true, nullable = false, length = 50)
+    // Unicité : générateur Snowflake (ID de nœud loué par instance) et index idx_orders_order_number
+    // (order_number, created_at), la table étant partitionnée sur created_at
+    @Column(name = "order_number", nullable = false, length = 50)
     private String orderNumber;
 
     @Builder.Default
@@ -43,26 +50,36 @@ public class Order {
     @Column(name = "payment_status", nullable = false, length = 50)
     private String paymentStatus = "PENDING";
 
-    // Montants
+    // Montants en centimes (voir pricing.Money), convertis en DECIMAL(10,2) par MinorUnitsConverter
     @Builder.Default
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal subtotal = BigDecimal.ZERO;
+    private long subtotal = 0L;
 
     @Builder.Default
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "shipping_cost", nullable = false, precision = 10, scale = 2)
-    private BigDecimal shippingCost = BigDecimal.ZERO;
+    private long shippingCost = 0L;
 
     @Builder.Default
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "tax_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private long taxAmount = 0L;
 
     @Builder.Default
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "discount_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private long discountAmount = 0L;
 
     @Builder.Default
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private long totalAmount = 0L;
+
+    // Incrémentée à chaque modification du panier (ordre des événements ITEM_ADDED / ITEM_REMOVED)
+    @Builder.Default
+    @Column(name = "cart_version", nullable = false)
+    private Long cartVersion = 0L;
 
     // Informations client (snapshot au moment de la commande)
     @Column(name = "client_email", nullable = false)
@@ -98,6 +115,10 @@ public class Order {
     @Column(name = "validated_at")
     private LocalDateTime validatedAt;
 
+    // Dernière demande de réservation du stock envoyée à products-service (voir StockReservationRetrier)
+    @Column(name = "stock_requested_at")
+    private LocalDateTime stockRequestedAt;
+
     @Column(name = "paid_at")
     private LocalDateTime paidAt;
 
@@ -138,15 +159,35 @@ public class Order {
         recalculateTotal();
     }
 
+    /**
+     * Ajouts et retraits groupés : le total n'est recalculé qu'une fois.
+     */
+    public void applyItemChanges(Collection<OrderItem> added, Collection<OrderItem> removed) {
+        // Comparaison par identité : equals (@Data) parcourt tous les champs
+        Set<OrderItem> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        gone.addAll(removed);
+        items.removeIf(gone::contains);
+        removed.forEach(item -> item.setOrder(null));
+        added.forEach(item -> {
+            items.add(item);
+            item.setOrder(this);
+        });
+        recalculateTotal();
+    }
+
     public void recalculateTotal() {
-        this.subtotal = items.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        this.totalAmount = subtotal
-                .add(shippingCost)
-                .add(taxAmount)
-                .subtract(discountAmount);
+        // Boucle en long : aucune allocation, quel que soit le nombre d'articles
+        long sum = 0L;
+        for (OrderItem item : items) {
+            sum = Math.addExact(sum, item.getSubtotal());
+        }
+        this.subtotal = sum;
+        this.totalAmount = OrderPricing.total(subtotal, shippingCost, taxAmount, discountAmount);
+    }
+
+    public long nextCartVersion() {
+        this.cartVersion = cartVersion + 1;
+        return cartVersion;
     }
 
     public boolean canBeModified() {
@@ -156,7 +197,8 @@ public class Order {
     public boolean canBeCancelled() {
         return !"DELIVERED".equals(status) && 
                !"CANCELLED".equals(status) && 
-               !"REFUNDED".equals(status);
+               !"REFUNDED".equals(status) &&
+               !"STOCK_REJECTED".equals(status);
     }
 
 }
@@ -0,0 +1,53 @@
+package com.microcommerce.orders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position d'une commande archivée : fichier, décalage et longueur de son membre gzip.
+ */
+@Entity
+@Table(name = "order_archive_index")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderArchiveEntry {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    // Conservé pour la vérification de propriété (isOrderOwner) après archivage
+    @Column(name = "client_email", nullable = false)
+    private String clientEmail;
+
+    @Column(name = "order_number", nullable = false, length = 50)
+    private String orderNumber;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_offset", nullable = false)
+    private Long fileOffset;
+
+    @Column(nullable = false)
+    private Integer length;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
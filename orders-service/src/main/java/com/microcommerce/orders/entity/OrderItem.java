@@ -1,5 +1,7 @@
 package com.microcommerce.orders.entity;
 
+import com.microcommerce.orders.pricing.MinorUnitsConverter;
+import com.microcommerce.orders.pricing.OrderPricing;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,8 +23,10 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class OrderItem {
 
+    // Séquence par blocs (et non IDENTITY) pour que Hibernate puisse regrouper les INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_seq")
+    @SequenceGenerator(name = "order_items_id_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,14 +46,17 @@ public class OrderItem {
     @Column(name = "product_sku", nullable = false, length = 100)
     private String productSku;
 
+    // Montants en centimes (voir pricing.Money)
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    private long unitPrice;
 
     @Column(nullable = false)
     private Integer quantity;
 
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal subtotal;
+    private long subtotal;
 
     @Column(name = "image_url", length = 500)
     private String imageUrl;
@@ -68,8 +75,8 @@ public class OrderItem {
     @PrePersist
     @PreUpdate
     public void calculateSubtotal() {
-        if (unitPrice != null && quantity != null) {
-            this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        if (quantity != null) {
+            this.subtotal = OrderPricing.lineSubtotal(unitPrice, quantity);
         }
     }
 
@@ -0,0 +1,42 @@
+package com.microcommerce.orders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "status_history")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Simple ID (pas de relation) : les lignes sont insérées par lots JDBC, hors contexte JPA
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "previous_status", length = 20)
+    private String previousStatus;
+
+    @Column(name = "new_status", nullable = false, length = 20)
+    private String newStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String comment;
+
+    // Auteur du changement de statut
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.microcommerce.orders.exception;
+
+public class CartUnavailableException extends RuntimeException {
+    public CartUnavailableException(String message) {
+        super(message);
+    }
+}
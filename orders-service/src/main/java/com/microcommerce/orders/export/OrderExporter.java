@@ -0,0 +1,236 @@
+package com.microcommerce.orders.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orders.dto.response.OrderItemResponse;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export NDJSON des commandes validées (paniers exclus) et de leurs articles : une commande
+ * par ligne, format OrderResponse.
+ *
+ * Une seule requête lue par curseur côté serveur (transaction en lecture seule, résultat
+ * forward-only, fetch size) : seule la commande en cours est en mémoire, quel que soit
+ * le volume exporté. Les commandes sortent par ID croissant.
+ */
+@Component
+@Slf4j
+public class OrderExporter {
+
+    private static final String SELECT_SQL = """
+            SELECT o.id, o.client_id, o.order_number, o.status, o.payment_status,
+                   o.subtotal, o.shipping_cost, o.tax_amount, o.discount_amount, o.total_amount,
+                   o.client_email, o.client_first_name, o.client_last_name, o.client_phone,
+                   o.shipping_address, o.billing_address,
+                   o.created_at, o.updated_at, o.validated_at, o.paid_at, o.shipped_at, o.delivered_at,
+                   o.carrier, o.tracking_number, o.client_comment,
+                   oi.id AS item_id, oi.product_id, oi.product_name, oi.product_description, oi.product_sku,
+                   oi.unit_price, oi.quantity, oi.subtotal AS item_subtotal, oi.image_url, oi.unit_weight,
+                   oi.created_at AS item_created_at
+            FROM orders o
+            LEFT JOIN order_items oi ON oi.order_id = o.id%s
+            WHERE o.status <> 'CART'
+            """;
+
+    // Un article est toujours créé après sa commande (panier) : oi.created_at >= o.created_at
+    private static final String ITEMS_FROM = " AND oi.created_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Counter exported;
+
+    public OrderExporter(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.exported = Counter.builder("orders.export.exported").register(meterRegistry);
+    }
+
+    /**
+     * Écrit les commandes filtrées dans le flux, sans le fermer.
+     *
+     * @param from   début de période inclus (created_at), optionnel
+     * @param to     fin de période exclue (created_at), optionnelle
+     * @param status statut exact, optionnel
+     * @return le nombre de commandes écrites
+     */
+    public long export(LocalDateTime from, LocalDateTime to, String status, OutputStream out) {
+        List<Object> params = new ArrayList<>();
+        // orders et order_items sont partitionnées chacune sur leur propre created_at : la borne basse
+        // est aussi posée sur oi.created_at (dans la jointure, pour garder les commandes sans article)
+        // afin d'élaguer les partitions d'articles. Pas de borne haute sur les articles : un article
+        // ajouté après la fin de période appartient quand même à une commande de la période.
+        StringBuilder sql = new StringBuilder(SELECT_SQL.formatted(from != null ? ITEMS_FROM : ""));
+        if (from != null) {
+            params.add(Timestamp.valueOf(from));
+        }
+        // Filtres sur o.created_at (clé de partition de orders) : seules les partitions de la période sont lues
+        if (from != null) {
+            sql.append(" AND o.created_at >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (status != null) {
+            sql.append(" AND o.status = ?");
+            params.add(status);
+        }
+        sql.append(" ORDER BY o.id, oi.id");
+
+        log.info("Export des commandes - du {} au {}, statut: {}", from, to, status);
+        long start = System.currentTimeMillis();
+
+        Long count = readOnlyTransaction.execute(tx -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // Le flux appartient à l'appelant (réponse HTTP)
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Pas d'espace entre deux valeurs racines : chaque ligne est terminée par '\n'
+                generator.setRootValueSeparator(null);
+                NdjsonWriter writer = new NdjsonWriter(generator);
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    // Avec autocommit désactivé (transaction), le pilote PostgreSQL lit par blocs via un curseur
+                    ps.setFetchSize(fetchSize);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                }, writer);
+                writer.finish();
+                generator.flush();
+                return writer.written;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture de l'export impossible", e);
+            }
+        });
+
+        long written = count != null ? count : 0;
+        log.info("{} commandes exportées en {} ms", written, System.currentTimeMillis() - start);
+        return written;
+    }
+
+    /**
+     * Regroupe les lignes (commande, article) consécutives d'une même commande puis l'écrit.
+     */
+    private final class NdjsonWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private OrderResponse current;
+        private long written;
+
+        private NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("id");
+            if (current == null || current.getId() != orderId) {
+                finish();
+                current = readOrder(rs);
+            }
+            if (rs.getObject("item_id") != null) {
+                current.getItems().add(readItem(rs));
+            }
+        }
+
+        private void finish() {
+            if (current == null) {
+                return;
+            }
+            current.setTotalItems(current.getItems().size());
+            try {
+                generator.writeObject(current);
+                // Le générateur se vide dans le flux dès que son tampon est plein
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture de l'export impossible", e);
+            }
+            written++;
+            exported.increment();
+            current = null;
+        }
+    }
+
+    private static OrderResponse readOrder(ResultSet rs) throws SQLException {
+        return OrderResponse.builder()
+                .id(rs.getLong("id"))
+                .clientId(rs.getLong("client_id"))
+                .orderNumber(rs.getString("order_number"))
+                .status(rs.getString("status"))
+                .paymentStatus(rs.getString("payment_status"))
+                .subtotal(rs.getBigDecimal("subtotal"))
+                .shippingCost(rs.getBigDecimal("shipping_cost"))
+                .taxAmount(rs.getBigDecimal("tax_amount"))
+                .discountAmount(rs.getBigDecimal("discount_amount"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .clientEmail(rs.getString("client_email"))
+                .clientFirstName(rs.getString("client_first_name"))
+                .clientLastName(rs.getString("client_last_name"))
+                .clientPhone(rs.getString("client_phone"))
+                .shippingAddress(rs.getString("shipping_address"))
+                .billingAddress(rs.getString("billing_address"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .validatedAt(toLocalDateTime(rs.getTimestamp("validated_at")))
+                .paidAt(toLocalDateTime(rs.getTimestamp("paid_at")))
+                .shippedAt(toLocalDateTime(rs.getTimestamp("shipped_at")))
+                .deliveredAt(toLocalDateTime(rs.getTimestamp("delivered_at")))
+                .carrier(rs.getString("carrier"))
+                .trackingNumber(rs.getString("tracking_number"))
+                .clientComment(rs.getString("client_comment"))
+                .items(new ArrayList<>())
+                .build();
+    }
+
+    private static OrderItemResponse readItem(ResultSet rs) throws SQLException {
+        return OrderItemResponse.builder()
+                .id(rs.getLong("item_id"))
+                .productId(rs.getLong("product_id"))
+                .productName(rs.getString("product_name"))
+                .productDescription(rs.getString("product_description"))
+                .productSku(rs.getString("product_sku"))
+                .unitPrice(rs.getBigDecimal("unit_price"))
+                .quantity(rs.getInt("quantity"))
+                .subtotal(rs.getBigDecimal("item_subtotal"))
+                .imageUrl(rs.getString("image_url"))
+                .unitWeight(rs.getBigDecimal("unit_weight"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("item_created_at")))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
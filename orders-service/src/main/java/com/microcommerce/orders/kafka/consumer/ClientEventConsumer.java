@@ -1,5 +1,7 @@
 package com.microcommerce.orders.kafka.consumer;
 
+import com.microcommerce.orders.cache.ClientDirectory;
+import com.microcommerce.orders.cache.ClientProfile;
 import com.microcommerce.orders.kafka.event.ClientEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,15 +12,21 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ClientEventConsumer {
 
+    private final ClientDirectory clientDirectory;
+
+    // Groupe dédié lu depuis le début du topic : les profils déjà publiés sont rejoués une fois
     @KafkaListener(
         topics = "client-events",
-        groupId = "orders-service-group",
-        containerFactory = "kafkaListenerContainerFactory"
+        groupId = "orders-service-client-profiles",
+        containerFactory = "kafkaListenerContainerFactory",
+        properties = "auto.offset.reset=earliest"
     )
     public void handleClientEvent(
             @Payload ClientEvent event,
@@ -33,12 +41,17 @@ public class ClientEventConsumer {
                     event.getEventType(), event.getClientId(), event.getEmail());
             log.debug("Client event payload: {}", event);
 
-            // Ici on pourrait implémenter la logique pour :
-            // - Valider les informations client lors de la création de commande
-            // - Appliquer des remises basées sur le statut client (VIP, nouveau client, etc.)
-            // - Gérer les commandes en cas de suppression de compte client
-            // - Mettre à jour les adresses de livraison disponibles
-            // - Appliquer des règles de crédit client
+            switch (event.getEventType()) {
+                case "CLIENT_CREATED":
+                case "CLIENT_UPDATED":
+                    handleClientUpdated(event);
+                    break;
+                case "CLIENT_DELETED":
+                    clientDirectory.deactivate(event.getClientId(), event.getEmail(), eventTime(event));
+                    break;
+                default:
+                    log.debug("Ignoring client event type: {}", event.getEventType());
+            }
 
             // Acknowledge successful processing
             acknowledgment.acknowledge();
@@ -49,4 +62,20 @@ public class ClientEventConsumer {
             // Don't acknowledge - message will be retried
         }
     }
+
+    private void handleClientUpdated(ClientEvent event) {
+        clientDirectory.apply(ClientProfile.builder()
+                .clientId(event.getClientId())
+                .email(event.getEmail())
+                .firstName(event.getFirstName())
+                .lastName(event.getLastName())
+                .phone(event.getPhone())
+                .active(!Boolean.FALSE.equals(event.getActive()))
+                .eventAt(eventTime(event))
+                .build());
+    }
+
+    private static LocalDateTime eventTime(ClientEvent event) {
+        return event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+    }
 }
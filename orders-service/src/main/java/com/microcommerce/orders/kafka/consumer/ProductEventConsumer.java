@@ -1,5 +1,7 @@
 package com.microcommerce.orders.kafka.consumer;
 
+import com.microcommerce.orders.cache.ProductCatalogCache;
+import com.microcommerce.orders.cache.ProductSnapshot;
 import com.microcommerce.orders.kafka.event.ProductEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +17,8 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class ProductEventConsumer {
 
+    private final ProductCatalogCache productCatalogCache;
+
     @KafkaListener(
         topics = "product-events",
         groupId = "orders-service-group",
@@ -35,6 +39,7 @@ public class ProductEventConsumer {
                 case "STOCK_UPDATED":
                     handleStockUpdated(event);
                     break;
+                case "PRODUCT_CREATED":
                 case "PRODUCT_UPDATED":
                     handleProductUpdated(event);
                     break;
@@ -59,26 +64,33 @@ public class ProductEventConsumer {
     private void handleStockUpdated(ProductEvent event) {
         log.info("Product stock updated - Product ID: {}, SKU: {}, Available: {}",
                 event.getProductId(), event.getSku(), event.getStockAvailable());
-        
-        // Ici on pourrait implémenter la logique pour :
-        // - Vérifier si des commandes en attente peuvent être traitées
-        // - Notifier les clients de la disponibilité des produits
-        // - Mettre à jour un cache local des stocks si nécessaire
+
+        if (event.getStockAvailable() != null) {
+            productCatalogCache.updateStock(event.getProductId(), event.getStockAvailable());
+        }
     }
 
     private void handleProductUpdated(ProductEvent event) {
         log.info("Product updated - Product ID: {}, SKU: {}, Name: {}, Active: {}",
                 event.getProductId(), event.getSku(), event.getName(), event.getActive());
-        
-        // Ici on pourrait implémenter la logique pour :
-        // - Mettre à jour les informations produit dans les commandes en cours
-        // - Gérer les produits désactivés dans les paniers
+
+        productCatalogCache.put(ProductSnapshot.builder()
+                .id(event.getProductId())
+                .name(event.getName())
+                .sku(event.getSku())
+                .price(event.getPrice())
+                .stockAvailable(event.getStockAvailable())
+                .imageUrl(event.getImageUrl())
+                .active(event.getActive())
+                .build());
     }
 
     private void handleProductDeleted(ProductEvent event) {
         log.info("Product deleted - Product ID: {}, SKU: {}",
                 event.getProductId(), event.getSku());
-        
+
+        productCatalogCache.evict(event.getProductId());
+
         // Ici on pourrait implémenter la logique pour :
         // - Supprimer le produit des paniers en cours
         // - Annuler les commandes non confirmées contenant ce produit
@@ -0,0 +1,47 @@
+package com.microcommerce.orders.kafka.consumer;
+
+import com.microcommerce.orders.kafka.event.StockReservationEvent;
+import com.microcommerce.orders.service.StockReservationHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationConsumer {
+
+    private final StockReservationHandler stockReservationHandler;
+
+    @KafkaListener(
+        topics = "stock-reservations",
+        groupId = "orders-service-group",
+        containerFactory = "stockReservationKafkaListenerContainerFactory"
+    )
+    public void handleStockReservation(
+            @Payload StockReservationEvent event,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.RECEIVED_KEY) Object key,
+            Acknowledgment acknowledgment) {
+
+        try {
+            log.info("Received stock reservation result: {} for order ID: {} from topic: {}, partition: {}",
+                    event.getResult(), event.getOrderId(), topic, partition);
+
+            stockReservationHandler.apply(event);
+
+            acknowledgment.acknowledge();
+            log.debug("Successfully processed stock reservation result for order ID: {}", event.getOrderId());
+
+        } catch (Exception e) {
+            log.error("Error processing stock reservation result for order ID: {}", event.getOrderId(), e);
+            // Don't acknowledge - message will be retried
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class ClientEvent {
     private String email;
     private String firstName;
     private String lastName;
+    private String phone;
     private String role;
     private Boolean active;
     
@@ -1,6 +1,7 @@
 package com.microcommerce.orders.kafka.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +15,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class OrderEvent {
     
     private String eventId;
@@ -24,7 +26,12 @@ public class OrderEvent {
     private String clientEmail;
     private String status;
     private BigDecimal totalAmount;
+    // Instantané complet : ORDER_CREATED, ORDER_UPDATED, ORDER_CONFIRMED, ORDER_CANCELLED
     private List<OrderItemEvent> items;
+    // Delta : seule la ligne modifiée pour ITEM_ADDED / ITEM_REMOVED (quantité résultante, 0 si retirée)
+    private OrderItemEvent item;
+    // Version du panier après la modification, pour ordonner et dédupliquer les deltas
+    private Long cartVersion;
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime timestamp;
@@ -1,27 +1,38 @@
 package com.microcommerce.orders.kafka.producer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microcommerce.orders.entity.Order;
 import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.entity.OutboxEvent;
 import com.microcommerce.orders.kafka.event.OrderEvent;
+import com.microcommerce.orders.pricing.Money;
+import com.microcommerce.orders.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+/**
+ * Les événements ne sont pas envoyés directement à Kafka : ils sont écrits dans la table
+ * order_outbox, dans la transaction de la commande, puis relayés par {@link OutboxRelay}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(propagation = Propagation.MANDATORY)
 public class OrderEventProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
     
-    private static final String ORDER_EVENTS_TOPIC = "order-events";
+    static final String ORDER_EVENTS_TOPIC = "order-events";
 
     public void publishOrderCreated(Order order) {
         OrderEvent event = OrderEvent.builder()
@@ -32,7 +43,7 @@ public class OrderEventProducer {
                 .clientId(order.getClientId())
                 .clientEmail(order.getClientEmail())
                 .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
                 .items(mapOrderItems(order))
                 .timestamp(LocalDateTime.now())
                 .source("orders-service")
@@ -51,8 +62,9 @@ public class OrderEventProducer {
                 .clientId(order.getClientId())
                 .clientEmail(order.getClientEmail())
                 .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
                 .items(mapOrderItems(order))
+                .cartVersion(order.getCartVersion())
                 .timestamp(LocalDateTime.now())
                 .source("orders-service")
                 .version("1.0")
@@ -70,8 +82,9 @@ public class OrderEventProducer {
                 .clientId(order.getClientId())
                 .clientEmail(order.getClientEmail())
                 .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
                 .items(mapOrderItems(order))
+                .cartVersion(order.getCartVersion())
                 .timestamp(LocalDateTime.now())
                 .source("orders-service")
                 .version("1.0")
@@ -80,17 +93,21 @@ public class OrderEventProducer {
         publishEvent(event);
     }
 
-    public void publishOrderCancelled(Order order) {
+    /**
+     * Nouvelle demande de réservation du stock d'une commande restée PENDING (même contenu que ORDER_CONFIRMED).
+     */
+    public void publishStockReservationRequested(Order order) {
         OrderEvent event = OrderEvent.builder()
                 .eventId(UUID.randomUUID().toString())
-                .eventType("ORDER_CANCELLED")
+                .eventType("STOCK_RESERVATION_REQUESTED")
                 .orderId(order.getId())
                 .orderNumber(order.getOrderNumber())
                 .clientId(order.getClientId())
                 .clientEmail(order.getClientEmail())
                 .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
                 .items(mapOrderItems(order))
+                .cartVersion(order.getCartVersion())
                 .timestamp(LocalDateTime.now())
                 .source("orders-service")
                 .version("1.0")
@@ -99,16 +116,16 @@ public class OrderEventProducer {
         publishEvent(event);
     }
 
-    public void publishItemAdded(Order order, OrderItem item) {
+    public void publishOrderCancelled(Order order) {
         OrderEvent event = OrderEvent.builder()
                 .eventId(UUID.randomUUID().toString())
-                .eventType("ITEM_ADDED")
+                .eventType("ORDER_CANCELLED")
                 .orderId(order.getId())
                 .orderNumber(order.getOrderNumber())
                 .clientId(order.getClientId())
                 .clientEmail(order.getClientEmail())
                 .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
                 .items(mapOrderItems(order))
                 .timestamp(LocalDateTime.now())
                 .source("orders-service")
@@ -118,53 +135,79 @@ public class OrderEventProducer {
         publishEvent(event);
     }
 
+    /**
+     * Delta : seule la ligne ajoutée ou modifiée est transportée, avec la version du panier.
+     */
+    public void publishItemAdded(Order order, OrderItem item) {
+        publishEvent(itemDelta("ITEM_ADDED", order, mapOrderItem(item)));
+    }
+
+    /**
+     * Delta : la ligne retirée est transportée avec une quantité de 0.
+     */
+    public void publishItemRemoved(Order order, OrderItem item) {
+        OrderEvent.OrderItemEvent removed = OrderEvent.OrderItemEvent.builder()
+                .productId(item.getProductId())
+                .productSku(item.getProductSku())
+                .quantity(0)
+                .subtotal(BigDecimal.ZERO)
+                .build();
+        publishEvent(itemDelta("ITEM_REMOVED", order, removed));
+    }
+
+    private OrderEvent itemDelta(String eventType, Order order, OrderEvent.OrderItemEvent item) {
+        return OrderEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .orderId(order.getId())
+                .clientId(order.getClientId())
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
+                .item(item)
+                .cartVersion(order.getCartVersion())
+                .timestamp(LocalDateTime.now())
+                .source("orders-service")
+                .version("2.0")
+                .build();
+    }
+
     private java.util.List<OrderEvent.OrderItemEvent> mapOrderItems(Order order) {
         if (order.getItems() == null) {
             return java.util.Collections.emptyList();
         }
         
         return order.getItems().stream()
-                .map(item -> OrderEvent.OrderItemEvent.builder()
-                        .productId(item.getProductId())
-                        .productSku(item.getProductSku())
-                        .productName(item.getProductName())
-                        .quantity(item.getQuantity())
-                        .unitPrice(item.getUnitPrice())
-                        .subtotal(item.getSubtotal())
-                        .build())
+                .map(this::mapOrderItem)
                 .collect(Collectors.toList());
     }
 
+    private OrderEvent.OrderItemEvent mapOrderItem(OrderItem item) {
+        return OrderEvent.OrderItemEvent.builder()
+                .productId(item.getProductId())
+                .productSku(item.getProductSku())
+                .productName(item.getProductName())
+                .quantity(item.getQuantity())
+                .unitPrice(Money.toDecimal(item.getUnitPrice()))
+                .subtotal(Money.toDecimal(item.getSubtotal()))
+                .build();
+    }
+
     private void publishEvent(OrderEvent event) {
+        log.info("Enregistrement dans l'outbox de l'événement: {} pour la commande ID: {}",
+                event.getEventType(), event.getOrderId());
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(event.getOrderId())
+                .eventType(event.getEventType())
+                .topic(ORDER_EVENTS_TOPIC)
+                .payload(toJson(event))
+                .build());
+    }
+
+    private String toJson(OrderEvent event) {
         try {
-            log.info("Publishing order event: {} for order ID: {}", event.getEventType(), event.getOrderId());
-            
-            CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(
-                ORDER_EVENTS_TOPIC, 
-                event.getOrderId().toString(), 
-                event
-            );
-            
-            future.whenComplete((result, ex) -> {
-                if (ex == null) {
-                    log.info("Successfully published order event: {} for order ID: {} to partition: {} with offset: {}",
-                            event.getEventType(), 
-                            event.getOrderId(),
-                            result.getRecordMetadata().partition(),
-                            result.getRecordMetadata().offset());
-                } else {
-                    log.error("Failed to publish order event: {} for order ID: {}", 
-                            event.getEventType(), 
-                            event.getOrderId(), 
-                            ex);
-                }
-            });
-            
-        } catch (Exception e) {
-            log.error("Error publishing order event: {} for order ID: {}", 
-                    event.getEventType(), 
-                    event.getOrderId(), 
-                    e);
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation impossible de l'événement " + event.getEventType(), e);
         }
     }
 }
@@ -0,0 +1,110 @@
+package com.microcommerce.orders.kafka.producer;
+
+import com.microcommerce.orders.entity.OutboxEvent;
+import com.microcommerce.orders.kafka.event.OrderEvent;
+import com.microcommerce.orders.repository.AdvisoryLocks;
+import com.microcommerce.orders.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relais de l'outbox vers Kafka.
+ *
+ * À chaque passage, vide la table order_outbox par lots ordonnés par ID : le lot est lu,
+ * envoyé en une rafale, puis supprimé (courte transaction) une fois tous les accusés Kafka reçus ;
+ * aucune transaction ni verrou de ligne n'est tenu pendant l'attente des accusés. Une seule
+ * instance relaie à la fois (verrou consultatif, les autres passent leur tour), ce qui conserve l'ordre.
+ * En cas d'échec, le lot reste en table et sera renvoyé au passage suivant
+ * (livraison au moins une fois : les consommateurs dédupliquent par eventId).
+ *
+ * Le payload, déjà sérialisé en JSON par OrderEventProducer, est envoyé tel quel
+ * (StringSerializer) avec l'en-tête de type que posait JsonSerializer.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String LOCK_NAME = "orders-outbox-relay";
+    private static final byte[] EVENT_TYPE_ID = OrderEvent.class.getName().getBytes(StandardCharsets.UTF_8);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AdvisoryLocks advisoryLocks;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final Counter published;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       AdvisoryLocks advisoryLocks,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.advisoryLocks = advisoryLocks;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.published = Counter.builder("orders.outbox.published").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            advisoryLocks.runExclusively(LOCK_NAME, () -> {
+                int relayed;
+                do {
+                    relayed = relayBatch();
+                } while (relayed == batchSize);
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du relais de l'outbox vers Kafka", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(
+                    outboxEvent.getTopic(),
+                    outboxEvent.getAggregateId().toString(),
+                    outboxEvent.getPayload());
+            record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, EVENT_TYPE_ID);
+            acks.add(kafkaTemplate.send(record));
+        }
+
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Échec de l'envoi d'un lot de " + batch.size() + " événements", e);
+        }
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+        published.increment(batch.size());
+        log.debug("{} événements relayés depuis l'outbox", batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.microcommerce.orders.pricing;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Colonne DECIMAL(10,2) <-> montant en centimes : la conversion n'a lieu qu'au chargement
+ * et à l'écriture, jamais lors des recalculs.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minor) {
+        return minor != null ? Money.toDecimal(minor) : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.microcommerce.orders.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions entre montants en unités mineures (centimes, long) et BigDecimal.
+ *
+ * Les calculs internes se font en long ; BigDecimal n'apparaît qu'aux frontières :
+ * colonnes DECIMAL(10,2) (MinorUnitsConverter), JSON de l'API et des événements,
+ * prix reçus de products-service.
+ */
+public final class Money {
+
+    /** Nombre de décimales des montants stockés (DECIMAL(10,2)) */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Règle d'arrondi en entrée : au centime le plus proche, la moitié arrondie vers le haut (HALF_UP).
+     *
+     * @throws ArithmeticException si le montant dépasse la capacité d'un long en centimes
+     */
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Conversion exacte, sans arrondi : seul point de création de BigDecimal en sortie
+     */
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
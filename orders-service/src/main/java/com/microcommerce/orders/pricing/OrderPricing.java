@@ -0,0 +1,27 @@
+package com.microcommerce.orders.pricing;
+
+/**
+ * Règles de calcul des totaux d'une commande, en unités mineures (centimes).
+ *
+ * Tous les montants sont entiers : aucune étape intermédiaire n'arrondit. Les frais de port,
+ * la taxe et la remise sont des montants déjà arrondis au centime portés par la commande.
+ * Un dépassement de capacité lève une ArithmeticException plutôt que de produire un total faux.
+ */
+public final class OrderPricing {
+
+    private OrderPricing() {
+    }
+
+    public static long lineSubtotal(long unitPrice, int quantity) {
+        return Math.multiplyExact(unitPrice, quantity);
+    }
+
+    /**
+     * total = sous-total + port + taxe - remise. La remise est plafonnée à la somme des
+     * autres montants : le total n'est jamais négatif (contrainte total_amount >= 0).
+     */
+    public static long total(long subtotal, long shippingCost, long taxAmount, long discountAmount) {
+        long gross = Math.addExact(Math.addExact(subtotal, shippingCost), taxAmount);
+        return gross - Math.min(discountAmount, gross);
+    }
+}
@@ -0,0 +1,53 @@
+package com.microcommerce.orders.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Verrous consultatifs PostgreSQL de session : un traitement planifié lancé par toutes les instances
+ * ne s'exécute que sur une seule à la fois.
+ *
+ * Le verrou est pris sur une connexion du pool réservée pendant tout le traitement (qui utilise ses
+ * propres connexions) et libéré avec elle ; si l'instance meurt, la fin de session le libère.
+ * À appeler hors transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AdvisoryLocks {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false si une autre instance tient le verrou : le traitement n'est pas exécuté
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!call(connection, "SELECT pg_try_advisory_lock(hashtext(?))", name)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                call(connection, "SELECT pg_advisory_unlock(hashtext(?))", name);
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean call(Connection connection, String sql, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
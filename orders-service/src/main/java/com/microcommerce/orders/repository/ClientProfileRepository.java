@@ -0,0 +1,97 @@
+package com.microcommerce.orders.repository;
+
+import com.microcommerce.orders.cache.ClientProfile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Table client_profiles : copie des profils clients reçus par client-events, partagée
+ * entre les instances et conservée entre deux démarrages.
+ *
+ * Les écritures sont conditionnées par l'horodatage de l'événement : un événement rejoué
+ * ou plus ancien que celui déjà appliqué est sans effet.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClientProfileRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO client_profiles (client_id, email, first_name, last_name, phone, active, event_at)
+            VALUES (:clientId, :email, :firstName, :lastName, :phone, :active, :eventAt)
+            ON CONFLICT (client_id) DO UPDATE
+            SET email = EXCLUDED.email,
+                first_name = EXCLUDED.first_name,
+                last_name = EXCLUDED.last_name,
+                phone = EXCLUDED.phone,
+                active = EXCLUDED.active,
+                event_at = EXCLUDED.event_at,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE client_profiles.event_at <= EXCLUDED.event_at
+            """;
+
+    // Le profil est conservé désactivé : un CLIENT_UPDATED en retard ne peut pas le réactiver
+    private static final String DEACTIVATE_SQL = """
+            INSERT INTO client_profiles (client_id, email, active, event_at)
+            VALUES (:clientId, :email, FALSE, :eventAt)
+            ON CONFLICT (client_id) DO UPDATE
+            SET active = FALSE,
+                event_at = EXCLUDED.event_at,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE client_profiles.event_at <= EXCLUDED.event_at
+            """;
+
+    private static final String SELECT_SQL = """
+            SELECT client_id, email, first_name, last_name, phone, active, event_at
+            FROM client_profiles
+            WHERE client_id = :clientId
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * @return false si un événement plus récent avait déjà été appliqué
+     */
+    public boolean upsert(ClientProfile profile) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("clientId", profile.getClientId())
+                .addValue("email", profile.getEmail())
+                .addValue("firstName", profile.getFirstName())
+                .addValue("lastName", profile.getLastName())
+                .addValue("phone", profile.getPhone())
+                .addValue("active", profile.isActive())
+                .addValue("eventAt", Timestamp.valueOf(profile.getEventAt()));
+        return namedParameterJdbcTemplate.update(UPSERT_SQL, params) > 0;
+    }
+
+    /**
+     * @return false si un événement plus récent avait déjà été appliqué
+     */
+    public boolean deactivate(long clientId, String email, LocalDateTime eventAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("clientId", clientId)
+                .addValue("email", email)
+                .addValue("eventAt", Timestamp.valueOf(eventAt));
+        return namedParameterJdbcTemplate.update(DEACTIVATE_SQL, params) > 0;
+    }
+
+    public Optional<ClientProfile> findById(long clientId) {
+        return namedParameterJdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("clientId", clientId),
+                (rs, rowNum) -> ClientProfile.builder()
+                        .clientId(rs.getLong("client_id"))
+                        .email(rs.getString("email"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .phone(rs.getString("phone"))
+                        .active(rs.getBoolean("active"))
+                        .eventAt(rs.getTimestamp("event_at").toLocalDateTime())
+                        .build())
+                .stream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,9 @@
+package com.microcommerce.orders.repository;
+
+import com.microcommerce.orders.entity.OrderArchiveEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderArchiveEntryRepository extends JpaRepository<OrderArchiveEntry, Long> {
+}
@@ -1,11 +1,13 @@
 package com.microcommerce.orders.repository;
 
+import com.microcommerce.orders.dto.projection.OrderItemRow;
 import com.microcommerce.orders.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +16,17 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Recherche par commande
     List<OrderItem> findByOrderIdOrderByCreatedAt(Long orderId);
 
+    // Articles de plusieurs commandes projetés en DTO, regroupables par orderId
+    @Query("""
+            SELECT new com.microcommerce.orders.dto.projection.OrderItemRow(
+                oi.order.id, oi.id, oi.productId, oi.productName, oi.productDescription, oi.productSku,
+                oi.unitPrice, oi.quantity, oi.subtotal, oi.imageUrl, oi.unitWeight, oi.createdAt)
+            FROM OrderItem oi
+            WHERE oi.order.id IN :orderIds
+            ORDER BY oi.order.id, oi.id
+            """)
+    List<OrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
     // Recherche par produit
     List<OrderItem> findByProductId(Long productId);
 
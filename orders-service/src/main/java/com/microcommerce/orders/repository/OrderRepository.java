@@ -1,26 +1,85 @@
 package com.microcommerce.orders.repository;
 
+import com.microcommerce.orders.dto.projection.OrderRow;
 import com.microcommerce.orders.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Vue minimale pour la vérification de propriété (@PreAuthorize)
+    interface OrderOwnership {
+        Long getClientId();
+        String getClientEmail();
+        String getStatus();
+    }
+
     // Recherche par numéro de commande
     Optional<Order> findByOrderNumber(String orderNumber);
 
     // Recherche par client
     Page<Order> findByClientIdOrderByCreatedAtDesc(Long clientId, Pageable pageable);
 
+    // Pagination en deux temps : page d'IDs, puis chargement groupé des commandes et articles
+    @Query("SELECT o.id FROM Order o WHERE o.clientId = :clientId ORDER BY o.createdAt DESC")
+    Page<Long> findIdsByClientIdOrderByCreatedAtDesc(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findAllIds(Pageable pageable);
+
+    // Pagination par curseur (keyset) sur (created_at, id), sans COUNT :
+    // s'appuie sur idx_orders_client_created_id / idx_orders_created_id.
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.client_id = :clientId
+        ORDER BY o.created_at DESC, o.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findFirstIdsByClientId(@Param("clientId") Long clientId, @Param("limit") int limit);
+
+    // Pages suivantes : le prédicat redondant created_at <= :createdAt permet d'élaguer les partitions plus récentes
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.client_id = :clientId
+        AND o.created_at <= :createdAt
+        AND (o.created_at, o.id) < (:createdAt, :id)
+        ORDER BY o.created_at DESC, o.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findIdsByClientIdBefore(@Param("clientId") Long clientId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+
+    @Query(value = "SELECT o.id FROM orders o ORDER BY o.created_at DESC, o.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findFirstIds(@Param("limit") int limit);
+
+    // Même élagage des partitions par le prédicat redondant created_at <= :createdAt
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.created_at <= :createdAt
+        AND (o.created_at, o.id) < (:createdAt, :id)
+        ORDER BY o.created_at DESC, o.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findIdsBefore(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             @Param("limit") int limit);
+
     // Recherche par statut
     Page<Order> findByStatusOrderByCreatedAtDesc(String status, Pageable pageable);
 
@@ -30,14 +89,72 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Panier actuel d'un client
     Optional<Order> findByClientIdAndStatus(Long clientId, String status);
 
-    // Commandes par période
+    // Résolution du panier actif (index partiel idx_orders_active_cart)
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.clientId = :clientId AND o.status = 'CART'")
+    Optional<Order> findCartWithItemsByClientId(@Param("clientId") Long clientId);
+
+    // Création atomique du panier : l'emplacement est réservé dans active_carts (clé client_id),
+    // la commande n'est insérée que si la réservation a réussi ; ne renvoie rien sinon
+    @Query(value = """
+        WITH claimed AS (
+            INSERT INTO active_carts (client_id, order_id)
+            VALUES (:clientId, nextval('orders_id_seq'))
+            ON CONFLICT (client_id) DO NOTHING
+            RETURNING order_id
+        )
+        INSERT INTO orders (id, client_id, order_number, status, payment_status,
+                            client_email, client_first_name, client_last_name,
+                            shipping_address, billing_address)
+        SELECT order_id, :clientId, :orderNumber, 'CART', 'PENDING',
+               :clientEmail, :clientFirstName, :clientLastName,
+               CAST(:shippingAddress AS jsonb), CAST(:billingAddress AS jsonb)
+        FROM claimed
+        RETURNING id
+        """, nativeQuery = true)
+    Optional<Long> insertCartIfAbsent(@Param("clientId") Long clientId,
+                                      @Param("orderNumber") String orderNumber,
+                                      @Param("clientEmail") String clientEmail,
+                                      @Param("clientFirstName") String clientFirstName,
+                                      @Param("clientLastName") String clientLastName,
+                                      @Param("shippingAddress") String shippingAddress,
+                                      @Param("billingAddress") String billingAddress);
+
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    // SELECT ... FOR UPDATE : sérialise les changements de statut concurrents (réponse de
+    // réservation du stock, annulation). Sans jointure : FOR UPDATE est refusé sur une jointure externe
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    // Lectures seules projetées en DTO : pas d'entité hydratée dans le contexte de persistance
+    String ORDER_ROW = """
+            SELECT new com.microcommerce.orders.dto.projection.OrderRow(
+                o.id, o.clientId, o.orderNumber, o.status, o.paymentStatus,
+                o.subtotal, o.shippingCost, o.taxAmount, o.discountAmount, o.totalAmount,
+                o.clientEmail, o.clientFirstName, o.clientLastName, o.clientPhone,
+                o.shippingAddress, o.billingAddress,
+                o.createdAt, o.updatedAt, o.validatedAt, o.paidAt, o.shippedAt, o.deliveredAt,
+                o.carrier, o.trackingNumber, o.clientComment)
+            FROM Order o
+            """;
+
+    @Query(ORDER_ROW + "WHERE o.id IN :ids")
+    List<OrderRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Lecture par clé primaire de trois colonnes, sans charger l'entité ni ses articles
+    @Query("SELECT o.clientId AS clientId, o.clientEmail AS clientEmail, o.status AS status FROM Order o WHERE o.id = :id")
+    Optional<OrderOwnership> findOwnershipById(@Param("id") Long id);
+
+    // Commandes par période : le filtre sur created_at (clé de partition) limite le parcours
+    // aux partitions mensuelles de la période
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate ORDER BY o.createdAt DESC")
     Page<Order> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                @Param("endDate") LocalDateTime endDate, 
                                Pageable pageable);
 
-    // Recherche par email client
-    Page<Order> findByClientEmailContainingIgnoreCaseOrderByCreatedAtDesc(String email, Pageable pageable);
+    // Recherche par email client : voir OrderSearchRepository (index trigrammes)
 
     // Statistiques
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
@@ -48,4 +165,36 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // Commandes récentes
     List<Order> findTop10ByOrderByCreatedAtDesc();
+
+    // Commandes PENDING sans réponse de réservation du stock depuis la date limite (StockReservationRetrier).
+    // SKIP LOCKED : une commande dont la réponse est en cours d'application est laissée de côté
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.status = 'PENDING' AND o.stock_requested_at < :before
+        ORDER BY o.stock_requested_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> claimPendingStockRequests(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    // Archivage : prochain lot de commandes closes antérieures à la date limite (partitions anciennes uniquement)
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.created_at < :before
+        AND o.status IN ('DELIVERED', 'CANCELLED', 'REFUNDED', 'STOCK_REJECTED')
+        AND o.id > :afterId
+        ORDER BY o.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Long> findArchivableIds(@Param("before") LocalDateTime before,
+                                 @Param("afterId") Long afterId,
+                                 @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteItemsByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,53 @@
+package com.microcommerce.orders.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recherche du support sur les commandes validées, par critères cumulables :
+ * sous-chaîne de l'email ou du nom (index GIN pg_trgm sur lower(...)),
+ * préfixe du numéro de commande (index text_pattern_ops).
+ *
+ * La requête est construite avec les seuls critères fournis : un prédicat "(:x IS NULL OR ...)"
+ * empêcherait PostgreSQL d'utiliser les index une fois la requête préparée en plan générique.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * @return les IDs des commandes correspondantes, des plus récentes aux plus anciennes
+     */
+    public List<Long> searchIds(String email, String orderNumberPrefix, String lastName, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM orders WHERE status <> 'CART'");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+
+        if (email != null) {
+            sql.append(" AND lower(client_email) LIKE :email");
+            params.addValue("email", "%" + escapeLike(email.toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (orderNumberPrefix != null) {
+            sql.append(" AND order_number LIKE :orderNumber");
+            params.addValue("orderNumber", escapeLike(orderNumberPrefix) + "%");
+        }
+        if (lastName != null) {
+            sql.append(" AND lower(client_last_name) LIKE :lastName");
+            params.addValue("lastName", "%" + escapeLike(lastName.toLowerCase(Locale.ROOT)) + "%");
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+
+        return namedParameterJdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    // Les caractères saisis sont recherchés tels quels (échappement par défaut : '\')
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
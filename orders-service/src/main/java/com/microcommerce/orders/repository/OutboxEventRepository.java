@@ -0,0 +1,17 @@
+package com.microcommerce.orders.repository;
+
+import com.microcommerce.orders.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Prochain lot dans l'ordre d'insertion ; un seul relais lit à la fois (verrou consultatif)
+    @Query(value = "SELECT * FROM order_outbox ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,82 @@
+package com.microcommerce.orders.repository;
+
+import com.microcommerce.orders.entity.ProductSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductSalesStatsRepository extends JpaRepository<ProductSalesStats, Long> {
+
+    // Vue commune aux classements cumulés et par fenêtre
+    interface SalesTotals {
+        Long getProductId();
+        Long getUnitsSold();
+        BigDecimal getRevenue();
+        Long getOrderCount();
+    }
+
+    // Incrément (ou décrément, valeurs négatives) atomique du cumul d'un produit
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_stats (product_id, units_sold, revenue, order_count, updated_at)
+            VALUES (:productId, :units, :revenue, :orders, CURRENT_TIMESTAMP)
+            ON CONFLICT (product_id) DO UPDATE SET
+                units_sold = product_sales_stats.units_sold + EXCLUDED.units_sold,
+                revenue = product_sales_stats.revenue + EXCLUDED.revenue,
+                order_count = product_sales_stats.order_count + EXCLUDED.order_count,
+                updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    void addTotals(@Param("productId") Long productId,
+                   @Param("units") long units,
+                   @Param("revenue") BigDecimal revenue,
+                   @Param("orders") long orders);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_daily (sales_date, product_id, units_sold, revenue, order_count)
+            VALUES (:salesDate, :productId, :units, :revenue, :orders)
+            ON CONFLICT (sales_date, product_id) DO UPDATE SET
+                units_sold = product_sales_daily.units_sold + EXCLUDED.units_sold,
+                revenue = product_sales_daily.revenue + EXCLUDED.revenue,
+                order_count = product_sales_daily.order_count + EXCLUDED.order_count
+            """, nativeQuery = true)
+    void addDaily(@Param("salesDate") LocalDate salesDate,
+                  @Param("productId") Long productId,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("orders") long orders);
+
+    // Meilleures ventes cumulées, servies par idx_product_sales_stats_units
+    @Query(value = """
+            SELECT product_id AS productId, units_sold AS unitsSold, revenue, order_count AS orderCount
+            FROM product_sales_stats
+            WHERE units_sold > 0
+            ORDER BY units_sold DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<SalesTotals> findTopSellers(@Param("limit") int limit);
+
+    // Meilleures ventes depuis une date : au plus quelques jours de lignes, via la clé primaire
+    @Query(value = """
+            SELECT product_id AS productId, SUM(units_sold) AS unitsSold,
+                   SUM(revenue) AS revenue, SUM(order_count) AS orderCount
+            FROM product_sales_daily
+            WHERE sales_date >= :since
+            GROUP BY product_id
+            HAVING SUM(units_sold) > 0
+            ORDER BY SUM(units_sold) DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<SalesTotals> findTopSellersSince(@Param("since") LocalDate since, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_sales_daily WHERE sales_date < :before", nativeQuery = true)
+    int deleteDailyBefore(@Param("before") LocalDate before);
+}
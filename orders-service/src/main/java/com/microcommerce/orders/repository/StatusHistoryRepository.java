@@ -0,0 +1,14 @@
+package com.microcommerce.orders.repository;
+
+import com.microcommerce.orders.entity.StatusHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StatusHistoryRepository extends JpaRepository<StatusHistory, Long> {
+
+    // Historique d'une commande, servi par idx_status_history_order_id
+    List<StatusHistory> findByOrderIdOrderByCreatedAtAscIdAsc(Long orderId);
+}
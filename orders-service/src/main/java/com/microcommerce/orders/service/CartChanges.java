@@ -0,0 +1,99 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.cache.ProductSnapshot;
+import com.microcommerce.orders.dto.request.CartLineRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Résolution d'une mise à jour groupée du panier en quantités finales par produit.
+ * Commune au mode synchrone et au panier en écriture différée.
+ */
+public final class CartChanges {
+
+    private CartChanges() {
+    }
+
+    /**
+     * Produits dont la fiche est nécessaire : ceux qu'une ligne ajoute ou fixe à une quantité positive
+     */
+    public static Set<Long> productIdsToLookup(List<CartLineRequest> lines) {
+        return lines.stream()
+                .filter(line -> line.getAction() != CartLineRequest.Action.REMOVE
+                        && line.getQuantity() != null && line.getQuantity() > 0)
+                .map(CartLineRequest::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Applique les lignes, dans l'ordre, aux quantités actuelles du panier.
+     *
+     * @return la quantité finale de chaque produit modifié (0 : ligne à retirer), dans l'ordre de première modification
+     * @throws IllegalArgumentException si une quantité est absente ou invalide, si un produit est indisponible,
+     *                                  en stock insuffisant ou absent du panier à retirer
+     */
+    public static Map<Long, Integer> resolve(Map<Long, Integer> current,
+                                             List<CartLineRequest> lines,
+                                             Map<Long, ProductSnapshot> products) {
+        Map<Long, Integer> quantities = new HashMap<>(current);
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+
+        for (CartLineRequest line : lines) {
+            Long productId = line.getProductId();
+            int present = quantities.getOrDefault(productId, 0);
+            int target = switch (line.getAction()) {
+                case ADD -> {
+                    try {
+                        yield Math.addExact(present, quantityOf(line, 1));
+                    } catch (ArithmeticException e) {
+                        throw new IllegalArgumentException("Quantité trop grande pour le produit: " + productId);
+                    }
+                }
+                case SET -> quantityOf(line, 0);
+                case REMOVE -> {
+                    if (present == 0) {
+                        throw new IllegalArgumentException("Produit non trouvé dans le panier: " + productId);
+                    }
+                    yield 0;
+                }
+            };
+            quantities.put(productId, target);
+            changes.put(productId, target);
+        }
+
+        changes.forEach((productId, target) -> {
+            if (target == 0 || target.equals(current.get(productId))) {
+                return;
+            }
+            ProductSnapshot product = products.get(productId);
+            if (product == null || !product.isAvailable()) {
+                throw new IllegalArgumentException("Produit non disponible: " + productId);
+            }
+            if (!product.hasStockFor(target)) {
+                throw new IllegalArgumentException("Stock insuffisant pour le produit: " + productId);
+            }
+        });
+
+        // Les lignes sans effet (quantité inchangée, retrait d'un produit ajouté puis retiré) sont ignorées
+        changes.entrySet().removeIf(change -> change.getValue().equals(current.getOrDefault(change.getKey(), 0)));
+        return changes;
+    }
+
+    /**
+     * Quantité de la ligne, déjà validée sur la requête HTTP mais vérifiée ici pour tout appelant :
+     * une quantité absente ne vaut pas 0 (un SET sans quantité retirerait la ligne).
+     */
+    private static int quantityOf(CartLineRequest line, int min) {
+        Integer quantity = line.getQuantity();
+        if (quantity == null || quantity < min) {
+            throw new IllegalArgumentException("Quantité invalide pour le produit " + line.getProductId()
+                    + " (" + line.getAction() + ", minimum " + min + "): " + quantity);
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,88 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.cache.CartIdCache;
+import com.microcommerce.orders.cache.ClientDirectory;
+import com.microcommerce.orders.cache.ClientProfile;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.repository.OrderRepository;
+import com.microcommerce.orders.view.OrderViewStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Résolution du panier actif d'un client (lecture, création atomique, cache clientId -> cartId).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CartResolver {
+
+    private final OrderRepository orderRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final CartIdCache cartIdCache;
+    private final OrderViewStore orderViewStore;
+    private final ClientDirectory clientDirectory;
+
+    /**
+     * Panier actif du client, créé au besoin par un INSERT ... ON CONFLICT DO NOTHING
+     * sur active_carts (clé client_id) : deux requêtes concurrentes ne peuvent pas créer deux paniers.
+     * Identité du client lue dans le profil local ; valeurs provisoires tant qu'aucun événement
+     * client-events n'a été reçu pour lui (complétées lors de la validation).
+     */
+    public Order getOrCreate(Long clientId) {
+        return find(clientId).orElseGet(() -> {
+            Optional<ClientProfile> profile = clientDirectory.find(clientId)
+                    .filter(client -> client.getEmail() != null && client.getFirstName() != null && client.getLastName() != null);
+            Optional<Long> createdId = orderRepository.insertCartIfAbsent(
+                    clientId,
+                    orderNumberGenerator.nextOrderNumber(),
+                    profile.map(ClientProfile::getEmail).orElse("temp@temp.com"),
+                    profile.map(ClientProfile::getFirstName).orElse("Temp"),
+                    profile.map(ClientProfile::getLastName).orElse("Temp"),
+                    "{}",
+                    "{}");
+
+            Order cart = createdId
+                    .flatMap(orderRepository::findWithItemsById)
+                    // Panier créé entre-temps par une requête concurrente
+                    .or(() -> orderRepository.findCartWithItemsByClientId(clientId))
+                    .orElseThrow(() -> new IllegalStateException("Impossible de créer le panier du client: " + clientId));
+
+            if (createdId.isPresent()) {
+                orderViewStore.refresh(cart);
+                log.info("Nouveau panier créé avec l'ID: {}", cart.getId());
+            }
+            cartIdCache.put(clientId, cart.getId());
+            return cart;
+        });
+    }
+
+    /**
+     * Résout le panier actif en une seule requête : par clé primaire si son ID est en cache,
+     * sinon par l'index partiel sur (client_id) WHERE status = 'CART'.
+     */
+    public Optional<Order> find(Long clientId) {
+        Long cachedCartId = cartIdCache.get(clientId);
+        if (cachedCartId != null) {
+            Optional<Order> cart = orderRepository.findWithItemsById(cachedCartId)
+                    .filter(order -> "CART".equals(order.getStatus()) && clientId.equals(order.getClientId()));
+            if (cart.isPresent()) {
+                return cart;
+            }
+            cartIdCache.evict(clientId);
+        }
+
+        Optional<Order> cart = orderRepository.findCartWithItemsByClientId(clientId);
+        cart.ifPresent(order -> cartIdCache.put(clientId, order.getId()));
+        return cart;
+    }
+
+    public void evict(Long clientId) {
+        cartIdCache.evict(clientId);
+    }
+}
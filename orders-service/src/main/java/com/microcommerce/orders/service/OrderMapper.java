@@ -0,0 +1,127 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.dto.projection.OrderItemRow;
+import com.microcommerce.orders.dto.projection.OrderRow;
+import com.microcommerce.orders.dto.response.OrderItemResponse;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.pricing.Money;
+
+import java.util.List;
+
+/**
+ * Conversion des entités commande vers les réponses de l'API (aussi utilisée pour l'archivage).
+ */
+public final class OrderMapper {
+
+    private OrderMapper() {
+    }
+
+    public static OrderResponse toResponse(Order order) {
+        List<OrderItemResponse> itemResponses = order.getItems().stream()
+                .map(OrderMapper::toItemResponse)
+                .toList();
+
+        return OrderResponse.builder()
+                .id(order.getId())
+                .clientId(order.getClientId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .subtotal(Money.toDecimal(order.getSubtotal()))
+                .shippingCost(Money.toDecimal(order.getShippingCost()))
+                .taxAmount(Money.toDecimal(order.getTaxAmount()))
+                .discountAmount(Money.toDecimal(order.getDiscountAmount()))
+                .totalAmount(Money.toDecimal(order.getTotalAmount()))
+                .clientEmail(order.getClientEmail())
+                .clientFirstName(order.getClientFirstName())
+                .clientLastName(order.getClientLastName())
+                .clientPhone(order.getClientPhone())
+                .shippingAddress(order.getShippingAddress())
+                .billingAddress(order.getBillingAddress())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .validatedAt(order.getValidatedAt())
+                .paidAt(order.getPaidAt())
+                .shippedAt(order.getShippedAt())
+                .deliveredAt(order.getDeliveredAt())
+                .carrier(order.getCarrier())
+                .trackingNumber(order.getTrackingNumber())
+                .clientComment(order.getClientComment())
+                .items(itemResponses)
+                .totalItems(itemResponses.size())
+                .build();
+    }
+
+    /**
+     * Même réponse, construite depuis les projections en lecture seule (sans entité).
+     */
+    public static OrderResponse toResponse(OrderRow order, List<OrderItemRow> items) {
+        List<OrderItemResponse> itemResponses = items.stream()
+                .map(OrderMapper::toItemResponse)
+                .toList();
+
+        return OrderResponse.builder()
+                .id(order.id())
+                .clientId(order.clientId())
+                .orderNumber(order.orderNumber())
+                .status(order.status())
+                .paymentStatus(order.paymentStatus())
+                .subtotal(Money.toDecimal(order.subtotal()))
+                .shippingCost(Money.toDecimal(order.shippingCost()))
+                .taxAmount(Money.toDecimal(order.taxAmount()))
+                .discountAmount(Money.toDecimal(order.discountAmount()))
+                .totalAmount(Money.toDecimal(order.totalAmount()))
+                .clientEmail(order.clientEmail())
+                .clientFirstName(order.clientFirstName())
+                .clientLastName(order.clientLastName())
+                .clientPhone(order.clientPhone())
+                .shippingAddress(order.shippingAddress())
+                .billingAddress(order.billingAddress())
+                .createdAt(order.createdAt())
+                .updatedAt(order.updatedAt())
+                .validatedAt(order.validatedAt())
+                .paidAt(order.paidAt())
+                .shippedAt(order.shippedAt())
+                .deliveredAt(order.deliveredAt())
+                .carrier(order.carrier())
+                .trackingNumber(order.trackingNumber())
+                .clientComment(order.clientComment())
+                .items(itemResponses)
+                .totalItems(itemResponses.size())
+                .build();
+    }
+
+    public static OrderItemResponse toItemResponse(OrderItem item) {
+        return OrderItemResponse.builder()
+                .id(item.getId())
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .productDescription(item.getProductDescription())
+                .productSku(item.getProductSku())
+                .unitPrice(Money.toDecimal(item.getUnitPrice()))
+                .quantity(item.getQuantity())
+                .subtotal(Money.toDecimal(item.getSubtotal()))
+                .imageUrl(item.getImageUrl())
+                .unitWeight(item.getUnitWeight())
+                .createdAt(item.getCreatedAt())
+                .build();
+    }
+
+    public static OrderItemResponse toItemResponse(OrderItemRow item) {
+        return OrderItemResponse.builder()
+                .id(item.id())
+                .productId(item.productId())
+                .productName(item.productName())
+                .productDescription(item.productDescription())
+                .productSku(item.productSku())
+                .unitPrice(Money.toDecimal(item.unitPrice()))
+                .quantity(item.quantity())
+                .subtotal(Money.toDecimal(item.subtotal()))
+                .imageUrl(item.imageUrl())
+                .unitWeight(item.unitWeight())
+                .createdAt(item.createdAt())
+                .build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.microcommerce.orders.service;
+
+/**
+ * Générateur de numéros de commande uniques.
+ */
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+}
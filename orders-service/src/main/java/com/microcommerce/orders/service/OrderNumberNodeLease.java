@@ -0,0 +1,127 @@
+package com.microcommerce.orders.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bail sur l'identifiant de nœud Snowflake de l'instance (table order_number_nodes, 0-1023) :
+ * deux instances en cours d'exécution ne tiennent jamais le même, sans aucune configuration.
+ *
+ * Le premier nœud libre ou expiré est loué au démarrage (SKIP LOCKED entre instances qui démarrent
+ * ensemble ; aucun nœud libre : le démarrage échoue), pour orders.node-lease.ttl, et renouvelé
+ * toutes les renew-interval-ms. Localement, le bail n'est tenu pour valide que jusqu'au début du
+ * dernier renouvellement réussi + ttl, avant son expiration en base : passé ce délai (base
+ * injoignable, pause de la JVM), nodeId() échoue plutôt que de risquer un doublon avec l'instance
+ * qui aurait repris le nœud. Un bail perdu est reloué, sur un autre nœud au besoin. Libéré à l'arrêt.
+ */
+@Component
+@Slf4j
+public class OrderNumberNodeLease {
+
+    private static final long MAX_NODE_ID = 1023;
+
+    private static final String ACQUIRE_SQL = """
+            UPDATE order_number_nodes SET owner = ?, leased_until = now() + ? * INTERVAL '1 millisecond'
+            WHERE node_id = (
+                SELECT node_id FROM order_number_nodes
+                WHERE leased_until < now()
+                ORDER BY node_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING node_id
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE order_number_nodes SET leased_until = now() + ? * INTERVAL '1 millisecond'
+            WHERE node_id = ? AND owner = ?
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE order_number_nodes SET owner = NULL, leased_until = '-infinity'
+            WHERE node_id = ? AND owner = ?
+            """;
+
+    private record Lease(long nodeId, long validUntilNanos) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    // Propriétaire du bail en base : propre à ce processus
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile Lease lease;
+
+    public OrderNumberNodeLease(JdbcTemplate jdbcTemplate,
+                                @Value("${orders.node-lease.ttl:30s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.lease = acquire(System.nanoTime());
+    }
+
+    /**
+     * @throws IllegalStateException si le bail n'est plus assuré : aucun numéro ne doit être émis
+     */
+    public long nodeId() {
+        Lease current = lease;
+        if (current == null || System.nanoTime() - current.validUntilNanos() >= 0) {
+            throw new IllegalStateException("Bail du nœud de numérotation expiré : numéros de commande suspendus");
+        }
+        return current.nodeId();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.node-lease.renew-interval-ms:10000}")
+    public void renew() {
+        Lease current = lease;
+        // Mesuré avant la requête : l'expiration locale précède toujours celle posée en base
+        long start = System.nanoTime();
+        try {
+            if (current != null && jdbcTemplate.update(RENEW_SQL, ttl.toMillis(), current.nodeId(), owner) == 1) {
+                lease = new Lease(current.nodeId(), start + ttl.toNanos());
+                return;
+            }
+            lease = null;
+            log.warn("Bail du nœud {} perdu, nouvelle location", current != null ? current.nodeId() : null);
+            lease = acquire(start);
+        } catch (RuntimeException e) {
+            // Le bail local expire de lui-même ; nouvel essai au passage suivant
+            log.error("Renouvellement du bail du nœud de numérotation impossible", e);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        Lease current = lease;
+        lease = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(RELEASE_SQL, current.nodeId(), owner);
+            log.info("Bail du nœud {} libéré", current.nodeId());
+        } catch (RuntimeException e) {
+            log.warn("Bail du nœud {} non libéré, il expirera dans {}", current.nodeId(), ttl, e);
+        }
+    }
+
+    private Lease acquire(long start) {
+        List<Long> ids = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class, owner, ttl.toMillis());
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Aucun identifiant de nœud libre dans order_number_nodes ("
+                    + (MAX_NODE_ID + 1) + " instances au plus)");
+        }
+        long nodeId = ids.get(0);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("Identifiant de nœud hors bornes dans order_number_nodes : " + nodeId);
+        }
+        log.info("Identifiant de nœud {} loué pour les numéros de commande (bail de {})", nodeId, ttl);
+        return new Lease(nodeId, start + ttl.toNanos());
+    }
+}
@@ -0,0 +1,52 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.dto.projection.OrderItemRow;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.repository.OrderItemRepository;
+import com.microcommerce.orders.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Lecture seule des commandes en réponses de l'API.
+ *
+ * Une commande par ID : entité et articles en une requête (JOIN FETCH), moins coûteuse que deux
+ * requêtes projetées tant que la commande compte peu d'articles (voir OrderReadBenchmark).
+ * Une page de commandes : projections OrderRow / OrderItemRow, deux requêtes (en-têtes, articles)
+ * pour toute la page, aucune entité hydratée ni suivie par le contexte de persistance.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OrderReader {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    public Optional<OrderResponse> find(Long orderId) {
+        return orderRepository.findWithItemsById(orderId).map(OrderMapper::toResponse);
+    }
+
+    /**
+     * @return les commandes trouvées, sans ordre garanti ; un ID inconnu est ignoré
+     */
+    public List<OrderResponse> findAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<OrderItemRow>> items = orderItemRepository.findRowsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId));
+
+        return orderRepository.findRowsByIdIn(orderIds).stream()
+                .map(order -> OrderMapper.toResponse(order, items.getOrDefault(order.id(), List.of())))
+                .toList();
+    }
+}
@@ -1,29 +1,50 @@
 package com.microcommerce.orders.service;
 
+import com.microcommerce.orders.archive.ArchivedOrderReader;
+import com.microcommerce.orders.cache.ClientDirectory;
+import com.microcommerce.orders.cache.OrderOwnershipCache;
+import com.microcommerce.orders.cache.ProductSnapshot;
+import com.microcommerce.orders.cart.WriteBehindCartEngine;
+import com.microcommerce.orders.client.ProductLookupClient;
 import com.microcommerce.orders.dto.request.AddToCartRequest;
-import com.microcommerce.orders.dto.response.OrderItemResponse;
+import com.microcommerce.orders.dto.request.BulkCartRequest;
+import com.microcommerce.orders.dto.request.CartLineRequest;
+import com.microcommerce.orders.dto.response.CursorPageResponse;
 import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.dto.response.StatusHistoryResponse;
 import com.microcommerce.orders.entity.Order;
 import com.microcommerce.orders.entity.OrderItem;
 import com.microcommerce.orders.exception.OrderNotFoundException;
 import com.microcommerce.orders.kafka.producer.OrderEventProducer;
+import com.microcommerce.orders.pricing.Money;
+import com.microcommerce.orders.pricing.OrderPricing;
 import com.microcommerce.orders.repository.OrderRepository;
 import com.microcommerce.orders.repository.OrderItemRepository;
+import com.microcommerce.orders.repository.OrderSearchRepository;
+import com.microcommerce.orders.repository.StatusHistoryRepository;
+import com.microcommerce.orders.view.OrderDocument;
+import com.microcommerce.orders.view.OrderViewStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,110 +55,176 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final OrderEventProducer orderEventProducer;
-    private final WebClient.Builder webClientBuilder;
+    private final ProductLookupClient productLookupClient;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final CartResolver cartResolver;
+    private final StatusHistoryRepository statusHistoryRepository;
+    private final StatusTransitionRecorder statusTransitionRecorder;
+    private final SalesStatsService salesStatsService;
+    private final ArchivedOrderReader archivedOrderReader;
+    private final OrderViewStore orderViewStore;
+    private final OrderReader orderReader;
+    private final OrderSearchRepository orderSearchRepository;
+    private final OrderOwnershipCache orderOwnershipCache;
+    private final ClientDirectory clientDirectory;
+    private final TransactionTemplate transactionTemplate;
+    // Présent uniquement si cart.write-behind.enabled=true
+    private final Optional<WriteBehindCartEngine> writeBehindCartEngine;
+
+    // Borne de sécurité : le client applique déjà son propre timeout et son repli
+    private static final Duration PRODUCT_LOOKUP_TIMEOUT = Duration.ofSeconds(2);
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MIN_SEARCH_LENGTH = 3;
 
     // ===== Gestion du panier =====
+    // Points d'entrée du panier hors transaction (NOT_SUPPORTED) : en écriture différée, la requête
+    // attend le thread du shard, qui prend lui-même une connexion ; la requête ne doit pas en retenir une.
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse getOrCreateCart(Long clientId) {
         log.info("Récupération ou création du panier pour le client: {}", clientId);
-        
-        Optional<Order> existingCart = orderRepository.findByClientIdAndStatus(clientId, "CART");
-        
-        if (existingCart.isPresent()) {
-            return convertToResponse(existingCart.get());
+
+        if (writeBehindCartEngine.isPresent()) {
+            return writeBehindCartEngine.get().getCart(clientId);
         }
         
-        // Créer un nouveau panier
-        Order newCart = Order.builder()
-                .clientId(clientId)
-                .orderNumber(generateOrderNumber())
-                .status("CART")
-                .paymentStatus("PENDING")
-                .subtotal(BigDecimal.ZERO)
-                .shippingCost(BigDecimal.ZERO)
-                .taxAmount(BigDecimal.ZERO)
-                .discountAmount(BigDecimal.ZERO)
-                .totalAmount(BigDecimal.ZERO)
-                .clientEmail("temp@temp.com") // Sera mis à jour lors de la validation
-                .clientFirstName("Temp")
-                .clientLastName("Temp")
-                .shippingAddress("{}")
-                .billingAddress("{}")
-                .build();
-        
-        Order savedCart = orderRepository.save(newCart);
-        log.info("Nouveau panier créé avec l'ID: {}", savedCart.getId());
-        
-        return convertToResponse(savedCart);
+        return transactionTemplate.execute(status -> OrderMapper.toResponse(cartResolver.getOrCreate(clientId)));
     }
 
+    /**
+     * Hors transaction : la recherche produit (jusqu'à PRODUCT_LOOKUP_TIMEOUT) ne retient aucune
+     * connexion du pool ; seule l'écriture du panier s'exécute en transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse addToCart(Long clientId, AddToCartRequest request) {
         log.info("Ajout au panier - Client: {}, Produit: {}, Quantité: {}", 
                 clientId, request.getProductId(), request.getQuantity());
-        
-        Order cart = orderRepository.findByClientIdAndStatus(clientId, "CART")
-                .orElseGet(() -> {
-                    Order newCart = Order.builder()
-                            .clientId(clientId)
-                            .orderNumber(generateOrderNumber())
-                            .status("CART")
-                            .paymentStatus("PENDING")
-                            .subtotal(BigDecimal.ZERO)
-                            .shippingCost(BigDecimal.ZERO)
-                            .taxAmount(BigDecimal.ZERO)
-                            .discountAmount(BigDecimal.ZERO)
-                            .totalAmount(BigDecimal.ZERO)
-                            .clientEmail("temp@temp.com")
-                            .clientFirstName("Temp")
-                            .clientLastName("Temp")
-                            .shippingAddress("{}")
-                            .billingAddress("{}")
-                            .build();
-                    return orderRepository.save(newCart);
-                });
+
+        ProductSnapshot product = productLookupClient.lookup(request.getProductId())
+                .blockOptional(PRODUCT_LOOKUP_TIMEOUT)
+                .filter(ProductSnapshot::isAvailable)
+                .orElseThrow(() -> new IllegalArgumentException("Produit non disponible: " + request.getProductId()));
+
+        if (writeBehindCartEngine.isPresent()) {
+            return writeBehindCartEngine.get().addToCart(clientId, product, request.getQuantity());
+        }
+
+        return transactionTemplate.execute(status -> addToCart(clientId, product, request.getQuantity()));
+    }
+
+    private OrderResponse addToCart(Long clientId, ProductSnapshot product, int quantity) {
+        Order cart = cartResolver.getOrCreate(clientId);
 
         Optional<OrderItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(request.getProductId()))
+                .filter(item -> item.getProductId().equals(product.getId()))
                 .findFirst();
 
+        int requestedQuantity = existingItem.map(OrderItem::getQuantity).orElse(0) + quantity;
+        if (!product.hasStockFor(requestedQuantity)) {
+            throw new IllegalArgumentException("Stock insuffisant pour le produit: " + product.getId());
+        }
+
         if (existingItem.isPresent()) {
             OrderItem item = existingItem.get();
-            item.updateQuantity(item.getQuantity() + request.getQuantity());
+            item.updateQuantity(requestedQuantity);
             orderItemRepository.save(item);
         } else {
-            OrderItem newItem = OrderItem.builder()
-                    .order(cart)
-                    .productId(request.getProductId())
-                    .productName("Produit " + request.getProductId())
-                    .productSku("SKU-" + request.getProductId())
-                    .unitPrice(BigDecimal.valueOf(99.99))
-                    .quantity(request.getQuantity())
-                    .subtotal(BigDecimal.valueOf(99.99).multiply(BigDecimal.valueOf(request.getQuantity())))
-                    .imageUrl("/images/product-" + request.getProductId() + ".jpg")
-                    .build();
+            OrderItem newItem = newItem(product, quantity);
             
             cart.addItem(newItem);
             orderItemRepository.save(newItem);
         }
 
         cart.recalculateTotal();
-        Order updatedCart = orderRepository.save(cart);
+        cart.nextCartVersion();
+        Order updatedCart = orderRepository.saveAndFlush(cart);
+        orderViewStore.refresh(updatedCart);
         
-        try {
-            orderEventProducer.publishItemAdded(updatedCart, 
-                existingItem.orElse(cart.getItems().get(cart.getItems().size() - 1)));
-        } catch (Exception e) {
-            log.warn("Erreur lors de la publication de l'événement Kafka pour l'ajout au panier: {}", e.getMessage());
-        }
+        // Écrit dans l'outbox, dans la même transaction que le panier
+        orderEventProducer.publishItemAdded(updatedCart, 
+            existingItem.orElse(cart.getItems().get(cart.getItems().size() - 1)));
         
         log.info("Produit ajouté au panier avec succès");
-        return convertToResponse(updatedCart);
+        return OrderMapper.toResponse(updatedCart);
     }
 
+    /**
+     * Ajouts, modifications et retraits de plusieurs lignes en une transaction : écritures
+     * d'articles en lots JDBC, un seul recalcul du total et un seul ORDER_UPDATED.
+     * Les recherches produits ont lieu avant l'ouverture de la transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderResponse updateCart(Long clientId, BulkCartRequest request) {
+        log.info("Mise à jour groupée du panier - Client: {}, Lignes: {}", clientId, request.getLines().size());
+
+        // Les recherches partent ensemble et sont regroupées par ProductLookupClient
+        Map<Long, ProductSnapshot> products = Flux.fromIterable(CartChanges.productIdsToLookup(request.getLines()))
+                .flatMap(productLookupClient::lookup)
+                .collectMap(ProductSnapshot::getId)
+                .block(PRODUCT_LOOKUP_TIMEOUT);
+
+        if (writeBehindCartEngine.isPresent()) {
+            return writeBehindCartEngine.get().updateCart(clientId, request.getLines(), products);
+        }
+
+        return transactionTemplate.execute(status -> updateCart(clientId, request.getLines(), products));
+    }
+
+    private OrderResponse updateCart(Long clientId, List<CartLineRequest> lines, Map<Long, ProductSnapshot> products) {
+        Order cart = cartResolver.getOrCreate(clientId);
+        Map<Long, OrderItem> existingItems = cart.getItems().stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, Function.identity()));
+        Map<Long, Integer> currentQuantities = cart.getItems().stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity));
+
+        Map<Long, Integer> changes = CartChanges.resolve(currentQuantities, lines, products);
+        if (changes.isEmpty()) {
+            return OrderMapper.toResponse(cart);
+        }
+
+        List<OrderItem> added = new ArrayList<>();
+        List<OrderItem> removed = new ArrayList<>();
+        changes.forEach((productId, quantity) -> {
+            OrderItem item = existingItems.get(productId);
+            if (quantity == 0) {
+                removed.add(item);
+            } else if (item != null) {
+                item.updateQuantity(quantity);
+            } else {
+                added.add(newItem(products.get(productId), quantity));
+            }
+        });
+
+        cart.applyItemChanges(added, removed);
+        orderItemRepository.saveAll(added);
+        orderItemRepository.deleteAll(removed);
+
+        cart.nextCartVersion();
+        Order updatedCart = orderRepository.saveAndFlush(cart);
+        orderViewStore.refresh(updatedCart);
+
+        // Un seul événement, avec le panier complet, quel que soit le nombre de lignes
+        orderEventProducer.publishOrderUpdated(updatedCart);
+
+        log.info("Panier mis à jour - {} ajouts, {} modifications, {} retraits",
+                added.size(), changes.size() - added.size() - removed.size(), removed.size());
+        return OrderMapper.toResponse(updatedCart);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse removeFromCart(Long clientId, Long productId) {
         log.info("Suppression du panier - Client: {}, Produit: {}", clientId, productId);
-        
-        Order cart = orderRepository.findByClientIdAndStatus(clientId, "CART")
+
+        if (writeBehindCartEngine.isPresent()) {
+            return writeBehindCartEngine.get().removeFromCart(clientId, productId);
+        }
+
+        return transactionTemplate.execute(status -> removeFromCartLine(clientId, productId));
+    }
+
+    private OrderResponse removeFromCartLine(Long clientId, Long productId) {
+        Order cart = cartResolver.find(clientId)
                 .orElseThrow(() -> new OrderNotFoundException("Aucun panier trouvé pour le client: " + clientId));
 
         OrderItem itemToRemove = cart.getItems().stream()
@@ -149,58 +236,140 @@ public class OrderService {
         orderItemRepository.delete(itemToRemove);
         
         cart.recalculateTotal();
-        Order updatedCart = orderRepository.save(cart);
+        cart.nextCartVersion();
+        Order updatedCart = orderRepository.saveAndFlush(cart);
+        orderViewStore.refresh(updatedCart);
+
+        orderEventProducer.publishItemRemoved(updatedCart, itemToRemove);
         
         log.info("Produit supprimé du panier avec succès");
-        return convertToResponse(updatedCart);
+        return OrderMapper.toResponse(updatedCart);
+    }
+
+    private OrderItem newItem(ProductSnapshot product, int quantity) {
+        long unitPrice = Money.toMinor(product.getPrice());
+        return OrderItem.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .productSku(product.getSku())
+                .unitPrice(unitPrice)
+                .quantity(quantity)
+                .subtotal(OrderPricing.lineSubtotal(unitPrice, quantity))
+                .imageUrl(product.getImageUrl())
+                .build();
     }
 
     // ===== Gestion des commandes =====
 
+    /**
+     * Document JSON de la commande, servi tel quel depuis order_view ; reconstruit depuis
+     * les entités (ou l'archive) s'il n'existe pas encore.
+     */
+    @Transactional(readOnly = true)
+    public byte[] getOrderJson(Long orderId) {
+        return orderViewStore.find(orderId)
+                .orElseGet(() -> orderViewStore.toDocument(getOrderById(orderId)).getJson());
+    }
+
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        return orderReader.find(orderId)
+                // Commande close et archivée hors base
+                .or(() -> archivedOrderReader.find(orderId))
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
-        return convertToResponse(order);
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getOrdersByClient(Long clientId, Pageable pageable) {
-        return orderRepository.findByClientIdOrderByCreatedAtDesc(clientId, pageable)
-                .map(this::convertToResponse);
+    public Page<OrderDocument> getOrdersByClient(Long clientId, Pageable pageable) {
+        return loadDocumentPage(orderRepository.findIdsByClientIdOrderByCreatedAtDesc(clientId, pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getOrdersByClient(Long clientId, int page, int size, String sort) {
+    public Page<OrderDocument> getOrdersByClient(Long clientId, int page, int size, String sort) {
         log.info("Récupération des commandes pour le client: {} - Page: {}, Taille: {}, Sort: {}", 
                 clientId, page, size, sort);
         
         Pageable pageable = PageRequest.of(page, size);
         
-        return orderRepository.findByClientIdOrderByCreatedAtDesc(clientId, pageable)
-                .map(this::convertToResponse);
+        return loadDocumentPage(orderRepository.findIdsByClientIdOrderByCreatedAtDesc(clientId, pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable)
-                .map(this::convertToResponse);
+    public Page<OrderDocument> getAllOrders(Pageable pageable) {
+        return loadDocumentPage(orderRepository.findAllIds(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getAllOrders(int page, int size, String sort) {
+    public Page<OrderDocument> getAllOrders(int page, int size, String sort) {
         log.info("Récupération de toutes les commandes - Page: {}, Taille: {}, Sort: {}", 
                 page, size, sort);
         
         Pageable pageable = PageRequest.of(page, size);
         
-        return orderRepository.findAll(pageable)
-                .map(this::convertToResponse);
+        return loadDocumentPage(orderRepository.findAllIds(pageable));
+    }
+
+    /**
+     * Commandes d'un client par curseur : chaque page coûte le même prix, quelle que soit sa profondeur
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderDocument> getOrdersByClient(Long clientId, String cursor, int size) {
+        int limit = normalizeCursorPageSize(size);
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findFirstIdsByClientId(clientId, limit + 1);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            ids = orderRepository.findIdsByClientIdBefore(clientId, position.createdAt, position.id, limit + 1);
+        }
+        return toCursorPage(ids, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderDocument> getAllOrders(String cursor, int size) {
+        int limit = normalizeCursorPageSize(size);
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findFirstIds(limit + 1);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            ids = orderRepository.findIdsBefore(position.createdAt, position.id, limit + 1);
+        }
+        return toCursorPage(ids, limit);
     }
 
+    /**
+     * Recherche du support : critères cumulables, au moins 3 caractères chacun (taille d'un trigramme)
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDocument> searchOrders(String email, String orderNumber, String lastName, int limit) {
+        String emailCriterion = normalizeSearchCriterion(email, "email");
+        String orderNumberCriterion = normalizeSearchCriterion(orderNumber, "numéro de commande");
+        String lastNameCriterion = normalizeSearchCriterion(lastName, "nom");
+        if (emailCriterion == null && orderNumberCriterion == null && lastNameCriterion == null) {
+            throw new IllegalArgumentException("Au moins un critère de recherche est obligatoire");
+        }
+
+        log.info("Recherche de commandes - email: {}, numéro: {}, nom: {}", emailCriterion, orderNumberCriterion, lastNameCriterion);
+        int normalizedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return loadDocuments(orderSearchRepository.searchIds(emailCriterion, orderNumberCriterion, lastNameCriterion, normalizedLimit));
+    }
+
+    /**
+     * Hors transaction jusqu'à l'écriture du panier en mémoire (voir les points d'entrée du panier),
+     * puis validation en transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse validateOrder(Long orderId) {
         log.info("Validation de la commande: {}", orderId);
-        
+
+        // Le panier en mémoire est écrit en base (transaction du shard) avant d'être lu
+        writeBehindCartEngine.ifPresent(engine -> engine.flushAndEvictCart(orderId));
+
+        return transactionTemplate.execute(status -> validate(orderId));
+    }
+
+    private OrderResponse validate(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
 
@@ -212,113 +381,195 @@ public class OrderService {
             throw new IllegalArgumentException("Impossible de valider une commande vide");
         }
 
+        applyClientProfile(order);
         order.setStatus("PENDING");
         order.setValidatedAt(LocalDateTime.now());
+        order.setStockRequestedAt(order.getValidatedAt());
+        cartResolver.evict(order.getClientId());
         
-        Order validatedOrder = orderRepository.save(order);
+        Order validatedOrder = orderRepository.saveAndFlush(order);
+        orderViewStore.refresh(validatedOrder);
+        statusTransitionRecorder.record(validatedOrder, "CART",
+                "Validation de la commande", validatedOrder.getClientId());
+        salesStatsService.recordConfirmed(validatedOrder);
         
-        try {
-            orderEventProducer.publishOrderConfirmed(validatedOrder);
-        } catch (Exception e) {
-            log.warn("Erreur lors de la publication de l'événement Kafka pour la validation de commande: {}", e.getMessage());
-        }
+        // Écrit dans l'outbox, dans la même transaction que la commande
+        orderEventProducer.publishOrderConfirmed(validatedOrder);
         
         log.info("Commande validée avec succès: {}", orderId);
         
-        return convertToResponse(validatedOrder);
+        return OrderMapper.toResponse(validatedOrder);
     }
 
-    // ===== Méthodes de sécurité =====
+    public OrderResponse cancelOrder(Long orderId) {
+        log.info("Annulation de la commande: {}", orderId);
+
+        // Verrou de ligne : la réponse de réservation du stock ne peut pas écraser l'annulation
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
+
+        if ("CART".equals(order.getStatus()) || !order.canBeCancelled()) {
+            throw new IllegalArgumentException("La commande ne peut pas être annulée en statut " + order.getStatus());
+        }
+
+        String previousStatus = order.getStatus();
+        order.setStatus("CANCELLED");
 
+        Order cancelledOrder = orderRepository.saveAndFlush(order);
+        orderViewStore.refresh(cancelledOrder);
+        statusTransitionRecorder.record(cancelledOrder, previousStatus,
+                "Annulation de la commande", null);
+        salesStatsService.recordCancelled(cancelledOrder);
+
+        // Écrit dans l'outbox : products-service restaure le stock
+        orderEventProducer.publishOrderCancelled(cancelledOrder);
+
+        log.info("Commande annulée avec succès: {}", orderId);
+
+        return OrderMapper.toResponse(cancelledOrder);
+    }
 
     @Transactional(readOnly = true)
-    public boolean isOrderOwner(Long orderId, Object principal) {
-        log.debug("Vérification de propriété - Commande: {}, Principal: {}", orderId, principal);
-        
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isEmpty()) {
-            log.debug("Commande {} non trouvée", orderId);
-            return false;
+    public List<StatusHistoryResponse> getStatusHistory(Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            throw new OrderNotFoundException(orderId);
         }
-        
-        try {
 
-            String userEmail = principal.toString();
-            
+        return statusHistoryRepository.findByOrderIdOrderByCreatedAtAscIdAsc(orderId).stream()
+                .map(history -> StatusHistoryResponse.builder()
+                        .previousStatus(history.getPreviousStatus())
+                        .newStatus(history.getNewStatus())
+                        .comment(history.getComment())
+                        .userId(history.getUserId())
+                        .createdAt(history.getCreatedAt())
+                        .build())
+                .toList();
+    }
+
+    // ===== Méthodes de sécurité =====
+
 
-            if ("CART".equals(order.get().getStatus())) {
+    /**
+     * Appelée par @PreAuthorize à chaque requête sécurisée sur une commande : lit uniquement
+     * client_id, client_email et status, et met en cache les verdicts stables.
+     * SUPPORTS : un succès de cache n'ouvre ni transaction ni connexion.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean isOrderOwner(Long orderId, Object principal) {
+        log.debug("Vérification de propriété - Commande: {}, Principal: {}", orderId, principal);
+
+        String userEmail = principal.toString();
+        Boolean cached = orderOwnershipCache.get(orderId, userEmail);
+        if (cached != null) {
+            return cached;
+        }
 
-                log.debug("Commande en statut CART - accès autorisé");
-                return true;
+        Optional<OrderRepository.OrderOwnership> ownership = orderRepository.findOwnershipById(orderId);
+        if (ownership.isEmpty()) {
+            // Une commande archivée est forcément close : seul son propriétaire y a accès
+            boolean isOwner = archivedOrderReader.findClientEmail(orderId)
+                    .map(userEmail::equals)
+                    .orElse(false);
+            log.debug("Commande {} absente de la base, propriétaire de l'archive: {}", orderId, isOwner);
+            if (isOwner) {
+                orderOwnershipCache.put(orderId, userEmail, true);
             }
-            
-            boolean isOwner = userEmail.equals(order.get().getClientEmail());
-            log.debug("Résultat vérification propriété: {}", isOwner);
-            
             return isOwner;
-        } catch (Exception e) {
-            log.error("Erreur lors de la vérification de propriété: {}", e.getMessage());
-            return false;
         }
+
+        if ("CART".equals(ownership.get().getStatus())) {
+            // Verdict lié au statut : jamais mis en cache
+            log.debug("Commande en statut CART - accès autorisé");
+            return true;
+        }
+
+        boolean isOwner = userEmail.equals(ownership.get().getClientEmail());
+        log.debug("Résultat vérification propriété (client {}): {}", ownership.get().getClientId(), isOwner);
+        orderOwnershipCache.put(orderId, userEmail, isOwner);
+        return isOwner;
     }
 
+    /**
+     * Documents d'une page d'IDs, dans l'ordre de la page, lus en une requête sur order_view.
+     * Seules les commandes sans document sont lues (projections OrderReader) et sérialisées.
+     */
+    private List<OrderDocument> loadDocuments(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
+        Map<Long, OrderDocument> documents = orderViewStore.findAll(ids);
+        List<Long> missing = ids.stream().filter(id -> !documents.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            orderReader.findAll(missing)
+                    .forEach(order -> documents.put(order.getId(), orderViewStore.toDocument(order)));
+        }
 
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "ORD-" + timestamp + "-" + uuid;
+        // Une commande supprimée entre les deux requêtes est simplement ignorée
+        return ids.stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    private OrderResponse convertToResponse(Order order) {
-        List<OrderItemResponse> itemResponses = order.getItems().stream()
-                .map(this::convertItemToResponse)
-                .toList();
+    private Page<OrderDocument> loadDocumentPage(Page<Long> idPage) {
+        return new PageImpl<>(loadDocuments(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
 
-        return OrderResponse.builder()
-                .id(order.getId())
-                .clientId(order.getClientId())
-                .orderNumber(order.getOrderNumber())
-                .status(order.getStatus())
-                .paymentStatus(order.getPaymentStatus())
-                .subtotal(order.getSubtotal())
-                .shippingCost(order.getShippingCost())
-                .taxAmount(order.getTaxAmount())
-                .discountAmount(order.getDiscountAmount())
-                .totalAmount(order.getTotalAmount())
-                .clientEmail(order.getClientEmail())
-                .clientFirstName(order.getClientFirstName())
-                .clientLastName(order.getClientLastName())
-                .clientPhone(order.getClientPhone())
-                .shippingAddress(order.getShippingAddress())
-                .billingAddress(order.getBillingAddress())
-                .createdAt(order.getCreatedAt())
-                .updatedAt(order.getUpdatedAt())
-                .validatedAt(order.getValidatedAt())
-                .paidAt(order.getPaidAt())
-                .shippedAt(order.getShippedAt())
-                .deliveredAt(order.getDeliveredAt())
-                .carrier(order.getCarrier())
-                .trackingNumber(order.getTrackingNumber())
-                .clientComment(order.getClientComment())
-                .items(itemResponses)
-                .totalItems(itemResponses.size())
+    private CursorPageResponse<OrderDocument> toCursorPage(List<Long> ids, int limit) {
+        // Une ligne de plus que demandé a été lue pour savoir s'il existe une page suivante
+        boolean hasNext = ids.size() > limit;
+        List<Long> pageIds = hasNext ? ids.subList(0, limit) : ids;
+
+        List<OrderDocument> content = loadDocuments(pageIds);
+
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            OrderDocument last = content.get(content.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+
+        return CursorPageResponse.<OrderDocument>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
                 .build();
     }
 
-    private OrderItemResponse convertItemToResponse(OrderItem item) {
-        return OrderItemResponse.builder()
-                .id(item.getId())
-                .productId(item.getProductId())
-                .productName(item.getProductName())
-                .productDescription(item.getProductDescription())
-                .productSku(item.getProductSku())
-                .unitPrice(item.getUnitPrice())
-                .quantity(item.getQuantity())
-                .subtotal(item.getSubtotal())
-                .imageUrl(item.getImageUrl())
-                .unitWeight(item.getUnitWeight())
-                .createdAt(item.getCreatedAt())
-                .build();
+    /**
+     * Fige sur la commande l'identité du client connue localement (client-events).
+     * Sans profil reçu, les valeurs déjà présentes sur le panier sont conservées.
+     */
+    private void applyClientProfile(Order order) {
+        clientDirectory.find(order.getClientId()).ifPresent(client -> {
+            if (!client.isActive()) {
+                throw new IllegalArgumentException("Le compte client est désactivé");
+            }
+            if (client.getEmail() != null) {
+                order.setClientEmail(client.getEmail());
+            }
+            if (client.getFirstName() != null && client.getLastName() != null) {
+                order.setClientFirstName(client.getFirstName());
+                order.setClientLastName(client.getLastName());
+            }
+            order.setClientPhone(client.getPhone());
+        });
+    }
+
+    private String normalizeSearchCriterion(String value, String label) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() < MIN_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Critère de recherche trop court (" + label + "): au moins "
+                    + MIN_SEARCH_LENGTH + " caractères");
+        }
+        return trimmed;
+    }
+
+    private int normalizeCursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
     }
 }
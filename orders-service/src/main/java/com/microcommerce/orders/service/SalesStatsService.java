@@ -0,0 +1,117 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.dto.response.ProductSalesResponse;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.pricing.Money;
+import com.microcommerce.orders.repository.ProductSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Statistiques de ventes par produit, maintenues de façon incrémentale.
+ *
+ * Chaque confirmation (resp. annulation) ajoute (resp. retranche) ses articles au cumul du
+ * produit et à son compteur du jour de confirmation, dans la transaction de la commande.
+ * Les lectures ne parcourent jamais order_items : une ligne par produit pour le cumul,
+ * au plus 7 lignes par produit pour les fenêtres jour / semaine.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesStatsService {
+
+    public static final String WINDOW_ALL = "all";
+    public static final String WINDOW_DAY = "day";
+    public static final String WINDOW_WEEK = "week";
+
+    private static final int WEEK_DAYS = 7;
+    private static final int MAX_TOP_LIMIT = 100;
+
+    private final ProductSalesStatsRepository productSalesStatsRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordConfirmed(Order order) {
+        apply(order, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCancelled(Order order) {
+        apply(order, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSalesResponse> getTopSellers(String window, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TOP_LIMIT));
+        LocalDate today = LocalDate.now();
+
+        List<ProductSalesStatsRepository.SalesTotals> totals = switch (window == null ? WINDOW_ALL : window) {
+            case WINDOW_ALL -> productSalesStatsRepository.findTopSellers(boundedLimit);
+            case WINDOW_DAY -> productSalesStatsRepository.findTopSellersSince(today, boundedLimit);
+            case WINDOW_WEEK -> productSalesStatsRepository.findTopSellersSince(today.minusDays(WEEK_DAYS - 1), boundedLimit);
+            default -> throw new IllegalArgumentException("Fenêtre inconnue: " + window + " (all, day ou week)");
+        };
+
+        return totals.stream()
+                .map(total -> ProductSalesResponse.builder()
+                        .productId(total.getProductId())
+                        .unitsSold(total.getUnitsSold())
+                        .revenue(total.getRevenue())
+                        .orderCount(total.getOrderCount())
+                        .build())
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSalesResponse getProductSales(Long productId) {
+        return productSalesStatsRepository.findById(productId)
+                .map(stats -> ProductSalesResponse.builder()
+                        .productId(stats.getProductId())
+                        .unitsSold(stats.getUnitsSold())
+                        .revenue(stats.getRevenue())
+                        .orderCount(stats.getOrderCount())
+                        .build())
+                .orElseGet(() -> ProductSalesResponse.builder()
+                        .productId(productId)
+                        .unitsSold(0L)
+                        .revenue(BigDecimal.ZERO)
+                        .orderCount(0L)
+                        .build());
+    }
+
+    // Les jours hors de la fenêtre hebdomadaire ne sont plus jamais lus
+    @Scheduled(cron = "${sales-stats.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpiredDays() {
+        int deleted = productSalesStatsRepository.deleteDailyBefore(LocalDate.now().minusDays(WEEK_DAYS));
+        log.info("{} lignes de ventes journalières expirées supprimées", deleted);
+    }
+
+    private void apply(Order order, int sign) {
+        // Le jour de confirmation : une annulation retranche du même compteur journalier
+        LocalDate salesDate = (order.getValidatedAt() != null ? order.getValidatedAt() : LocalDateTime.now()).toLocalDate();
+
+        // Ordre fixe des produits : deux commandes concurrentes verrouillent les lignes dans le même ordre
+        order.getItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getProductId))
+                .forEach(item -> {
+                    long units = (long) sign * item.getQuantity();
+                    BigDecimal revenue = Money.toDecimal(sign * item.getSubtotal());
+                    productSalesStatsRepository.addTotals(item.getProductId(), units, revenue, sign);
+                    productSalesStatsRepository.addDaily(salesDate, item.getProductId(), units, revenue, sign);
+                });
+
+        log.debug("Statistiques de ventes mises à jour pour la commande {} ({})",
+                order.getId(), sign > 0 ? "confirmation" : "annulation");
+    }
+}
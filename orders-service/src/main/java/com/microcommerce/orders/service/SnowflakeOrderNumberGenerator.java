@@ -0,0 +1,76 @@
+package com.microcommerce.orders.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Numéros de commande de type Snowflake : horodatage (ms depuis 2024-01-01, 41 bits),
+ * ID de nœud (10 bits) et séquence (12 bits), écrits en décimal sur 19 chiffres fixes.
+ *
+ * Les numéros sont uniques entre instances : chacune loue en base un ID de nœud distinct
+ * (OrderNumberNodeLease) et n'émet plus de numéro si son bail n'est plus assuré. Ils sont strictement croissants
+ * sur une instance et triables comme des chaînes : les insertions dans
+ * idx_orders_order_number se font en fin d'index.
+ * Format : ORD-0000012345678901234 (23 caractères).
+ */
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final byte[] PREFIX = "ORD-".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int DIGITS = 19;
+
+    private final LongSupplier nodeId;
+
+    // (horodatage << SEQUENCE_BITS) | séquence du dernier numéro émis
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(OrderNumberNodeLease lease) {
+        this(lease::nodeId);
+    }
+
+    SnowflakeOrderNumberGenerator(LongSupplier nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        // Lu avant le numéro : échoue si le bail n'est plus assuré
+        long node = nodeId.getAsLong();
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = lastState.get();
+            // Séquence épuisée ou horloge qui recule : on continue sur l'horodatage logique
+            next = Math.max(prev + 1, now);
+        } while (!lastState.compareAndSet(prev, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    private static String format(long id) {
+        byte[] chars = new byte[PREFIX.length + DIGITS];
+        System.arraycopy(PREFIX, 0, chars, 0, PREFIX.length);
+        for (int i = chars.length - 1; i >= PREFIX.length; i--) {
+            chars[i] = (byte) ('0' + (id % 10));
+            id /= 10;
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+}
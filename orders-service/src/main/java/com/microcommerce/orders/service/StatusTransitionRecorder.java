@@ -0,0 +1,242 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.StatusHistory;
+import com.microcommerce.orders.stream.OrderStatusEvent;
+import com.microcommerce.orders.stream.OrderStatusStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Enregistre les changements de statut dans status_history, hors du thread de requête.
+ *
+ * Les transitions sont mises en file après le commit de la transaction qui les porte
+ * (une transition annulée n'est jamais écrite ni poussée sur le flux SSE du client), puis insérées par lots JDBC toutes les
+ * status-history.flush-interval-ms. Si la file est pleine, le thread appelant réveille le thread
+ * d'écriture et attend une place : l'historique ralentit la requête plutôt que de perdre des lignes.
+ * L'appelant n'écrit jamais lui-même : depuis afterCommit, la connexion de la transaction terminée
+ * est encore liée au thread et une insertion n'y serait pas validée.
+ * Un lot dont l'insertion échoue est conservé et réessayé avant tout autre ; si l'échec vient
+ * d'une ligne invalide (contrainte), le lot est réécrit ligne à ligne et seule la ligne fautive
+ * est écartée (journalisée en entier).
+ * En cas d'arrêt brutal, les transitions encore en file (au plus un intervalle) sont perdues.
+ *
+ * Métriques exposées :
+ * - orders.status.history.recorded / pending : lignes écrites / en attente
+ * - orders.status.history.failures : insertions de lot en échec (lot conservé)
+ * - orders.status.history.rejected : lignes invalides écartées
+ */
+@Component
+@Slf4j
+public class StatusTransitionRecorder {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO status_history (order_id, previous_status, new_status, comment, user_id, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderStatusStream orderStatusStream;
+    private final BlockingQueue<StatusHistory> queue;
+    private final int batchSize;
+    private final Counter recorded;
+    private final Counter failures;
+    private final Counter rejected;
+
+    // Une seule insertion à la fois ; lot en échec réessayé en priorité (accès sous flushLock)
+    private final Object flushLock = new Object();
+    private volatile List<StatusHistory> failedBatch = List.of();
+
+    // Écriture immédiate demandée par un appelant qui trouve la file pleine
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "status-history-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public StatusTransitionRecorder(JdbcTemplate jdbcTemplate,
+                                    OrderStatusStream orderStatusStream,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${status-history.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${status-history.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderStatusStream = orderStatusStream;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.recorded = Counter.builder("orders.status.history.recorded").register(meterRegistry);
+        this.failures = Counter.builder("orders.status.history.failures").register(meterRegistry);
+        this.rejected = Counter.builder("orders.status.history.rejected").register(meterRegistry);
+        Gauge.builder("orders.status.history.pending", this, recorder -> recorder.queue.size() + recorder.failedBatch.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param order commande déjà passée au nouveau statut
+     */
+    public void record(Order order, String previousStatus, String comment, Long userId) {
+        StatusHistory transition = StatusHistory.builder()
+                .orderId(order.getId())
+                .previousStatus(previousStatus)
+                .newStatus(order.getStatus())
+                .comment(comment)
+                .userId(userId)
+                .createdAt(LocalDateTime.now())
+                .build();
+        Long clientId = order.getClientId();
+        OrderStatusEvent event = new OrderStatusEvent(order.getId(), order.getOrderNumber(),
+                previousStatus, order.getStatus(), transition.getCreatedAt());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(transition);
+                    orderStatusStream.publish(clientId, event);
+                }
+            });
+        } else {
+            enqueue(transition);
+            orderStatusStream.publish(clientId, event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${status-history.flush-interval-ms:500}")
+    public void flush() {
+        try {
+            while (flushBatch() == batchSize) {
+                // Continue tant que des lots complets restent en file
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'écriture de l'historique des statuts", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        flush();
+    }
+
+    private void enqueue(StatusHistory transition) {
+        if (queue.offer(transition)) {
+            return;
+        }
+        log.warn("File de l'historique des statuts pleine, attente du thread d'écriture");
+        try {
+            do {
+                requestFlush();
+            } while (!queue.offer(transition, 100, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Changement de statut non enregistré (interruption): commande {}, {} -> {}",
+                    transition.getOrderId(), transition.getPreviousStatus(), transition.getNewStatus());
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                writer.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushRequested.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Arrêt en cours : la file est vidée par shutdown()
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private int flushBatch() {
+        synchronized (flushLock) {
+            List<StatusHistory> batch = failedBatch;
+            if (batch.isEmpty()) {
+                batch = new ArrayList<>(batchSize);
+                queue.drainTo(batch, batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+            }
+
+            int written;
+            try {
+                insert(batch);
+                written = batch.size();
+            } catch (DataIntegrityViolationException e) {
+                failures.increment();
+                log.warn("Lot de l'historique des statuts refusé, réécriture ligne à ligne", e);
+                written = insertOneByOne(batch);
+            } catch (RuntimeException e) {
+                // Base indisponible : le lot reste en mémoire, réessayé au prochain passage
+                failures.increment();
+                failedBatch = batch;
+                throw e;
+            }
+            failedBatch = List.of();
+
+            recorded.increment(written);
+            log.debug("{} changements de statut enregistrés", written);
+            return batch.size();
+        }
+    }
+
+    private int insertOneByOne(List<StatusHistory> batch) {
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            StatusHistory transition = batch.get(i);
+            try {
+                insert(List.of(transition));
+                written++;
+            } catch (DataIntegrityViolationException e) {
+                rejected.increment();
+                log.error("Changement de statut invalide écarté de l'historique: commande {}, {} -> {}, commentaire: {}, utilisateur: {}, date: {}",
+                        transition.getOrderId(), transition.getPreviousStatus(), transition.getNewStatus(),
+                        transition.getComment(), transition.getUserId(), transition.getCreatedAt(), e);
+            } catch (RuntimeException e) {
+                // Base indisponible en cours de route : le reste du lot est réessayé
+                failures.increment();
+                failedBatch = List.copyOf(batch.subList(i, batch.size()));
+                recorded.increment(written);
+                throw e;
+            }
+        }
+        return written;
+    }
+
+    private void insert(List<StatusHistory> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, transition) -> {
+            ps.setLong(1, transition.getOrderId());
+            ps.setString(2, transition.getPreviousStatus());
+            ps.setString(3, transition.getNewStatus());
+            ps.setString(4, transition.getComment());
+            ps.setObject(5, transition.getUserId(), Types.BIGINT);
+            ps.setTimestamp(6, Timestamp.valueOf(transition.getCreatedAt()));
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.kafka.event.StockReservationEvent;
+import com.microcommerce.orders.repository.OrderRepository;
+import com.microcommerce.orders.view.OrderViewStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * Applique les réponses de products-service (topic stock-reservations) aux commandes validées :
+ * PENDING devient CONFIRMED si tout le stock est réservé (RESERVED), STOCK_REJECTED s'il manque (REJECTED).
+ * Une erreur de products-service (ERROR) n'est pas un refus : la commande reste PENDING et la demande
+ * est renvoyée par {@link StockReservationRetrier}.
+ *
+ * La corrélation se fait sur l'ID de commande, sans état en mémoire ni attente côté orders-service :
+ * seule une commande encore PENDING change de statut, une réponse rejouée ou arrivée après
+ * l'annulation de la commande est ignorée. La ligne est verrouillée (FOR UPDATE), comme à l'annulation.
+ *
+ * Métriques exposées :
+ * - orders.stock.reservation.round.trip{result} : de la validation de la commande à l'application de la réponse
+ * - orders.stock.reservation.ignored : réponses sans commande PENDING correspondante
+ * - orders.stock.reservation.retryable : réponses ERROR, la commande reste PENDING
+ */
+@Component
+@Slf4j
+@Transactional
+public class StockReservationHandler {
+
+    private final OrderRepository orderRepository;
+    private final OrderViewStore orderViewStore;
+    private final StatusTransitionRecorder statusTransitionRecorder;
+    private final SalesStatsService salesStatsService;
+    private final Timer confirmedRoundTrip;
+    private final Timer rejectedRoundTrip;
+    private final Counter ignored;
+    private final Counter retryable;
+
+    public StockReservationHandler(OrderRepository orderRepository,
+                                   OrderViewStore orderViewStore,
+                                   StatusTransitionRecorder statusTransitionRecorder,
+                                   SalesStatsService salesStatsService,
+                                   MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderViewStore = orderViewStore;
+        this.statusTransitionRecorder = statusTransitionRecorder;
+        this.salesStatsService = salesStatsService;
+        this.confirmedRoundTrip = roundTripTimer(meterRegistry, "CONFIRMED");
+        this.rejectedRoundTrip = roundTripTimer(meterRegistry, "STOCK_REJECTED");
+        this.ignored = Counter.builder("orders.stock.reservation.ignored").register(meterRegistry);
+        this.retryable = Counter.builder("orders.stock.reservation.retryable").register(meterRegistry);
+    }
+
+    public void apply(StockReservationEvent event) {
+        if (!"RESERVED".equals(event.getResult()) && !"REJECTED".equals(event.getResult())) {
+            // Incident passager (base, verrou) : seul un manque de stock clôt la commande
+            retryable.increment();
+            log.warn("Réservation du stock en erreur pour la commande {} ({}), nouvelle demande à venir: {}",
+                    event.getOrderId(), event.getResult(), event.getReason());
+            return;
+        }
+
+        // Verrou de ligne : une annulation concurrente est appliquée avant ou après, jamais écrasée
+        Order order = orderRepository.findByIdForUpdate(event.getOrderId()).orElse(null);
+        if (order == null || !"PENDING".equals(order.getStatus())) {
+            ignored.increment();
+            log.info("Réponse de réservation {} ignorée pour la commande {} (statut: {})", event.getResult(),
+                    event.getOrderId(), order != null ? order.getStatus() : "introuvable");
+            return;
+        }
+
+        boolean reserved = "RESERVED".equals(event.getResult());
+        order.setStatus(reserved ? "CONFIRMED" : "STOCK_REJECTED");
+
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        orderViewStore.refresh(savedOrder);
+        statusTransitionRecorder.record(savedOrder, "PENDING", comment(event), null);
+        if (!reserved) {
+            // La vente comptée à la validation n'aura pas lieu
+            salesStatsService.recordCancelled(savedOrder);
+        }
+
+        if (savedOrder.getValidatedAt() != null) {
+            (reserved ? confirmedRoundTrip : rejectedRoundTrip)
+                    .record(Duration.between(savedOrder.getValidatedAt(), LocalDateTime.now()));
+        }
+        log.info("Commande {} passée en {} après réservation du stock", savedOrder.getId(), savedOrder.getStatus());
+    }
+
+    private static String comment(StockReservationEvent event) {
+        if ("RESERVED".equals(event.getResult())) {
+            return "Stock réservé";
+        }
+        String products = event.getRejectedItems() == null ? "" : event.getRejectedItems().stream()
+                .map(item -> item.getProductId() + " (" + item.getAvailable() + "/" + item.getRequested() + ")")
+                .collect(Collectors.joining(", "));
+        return "Stock insuffisant: " + products;
+    }
+
+    private static Timer roundTripTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("orders.stock.reservation.round.trip")
+                .description("De la validation de la commande à l'application de la réponse de products-service")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
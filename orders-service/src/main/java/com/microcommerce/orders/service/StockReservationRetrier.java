@@ -0,0 +1,86 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.kafka.producer.OrderEventProducer;
+import com.microcommerce.orders.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Renvoie la demande de réservation du stock (STOCK_RESERVATION_REQUESTED, via l'outbox) des commandes
+ * restées PENDING plus de orders.stock-reservation.retry-after : réponse ERROR de products-service,
+ * réponse perdue à l'envoi, ou demande jamais traitée.
+ *
+ * La réservation est idempotente côté products-service : une commande déjà réservée reçoit de nouveau
+ * RESERVED. Les commandes sont prises par FOR UPDATE SKIP LOCKED, une tranche par transaction :
+ * plusieurs instances se partagent le balayage sans s'attendre.
+ *
+ * Métriques exposées :
+ * - orders.stock.reservation.retried : demandes renvoyées
+ */
+@Component
+@Slf4j
+public class StockReservationRetrier {
+
+    private final OrderRepository orderRepository;
+    private final OrderEventProducer orderEventProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retryAfter;
+    private final int batchSize;
+    private final Counter retried;
+
+    public StockReservationRetrier(OrderRepository orderRepository,
+                                   OrderEventProducer orderEventProducer,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${orders.stock-reservation.retry-after:2m}") Duration retryAfter,
+                                   @Value("${orders.stock-reservation.batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderEventProducer = orderEventProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.retryAfter = retryAfter;
+        this.batchSize = batchSize;
+        this.retried = Counter.builder("orders.stock.reservation.retried").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stock-reservation.interval-ms:60000}",
+               initialDelayString = "${orders.stock-reservation.initial-delay-ms:60000}")
+    public void retryPendingReservations() {
+        long total = 0;
+        try {
+            Integer requested;
+            do {
+                requested = transactionTemplate.execute(status -> retryChunk());
+                total += requested != null ? requested : 0;
+            } while (requested != null && requested == batchSize);
+        } catch (Exception e) {
+            log.error("Erreur lors du renvoi des demandes de réservation ({} renvoyées avant l'erreur)", total, e);
+        }
+
+        if (total > 0) {
+            log.warn("{} demandes de réservation du stock renvoyées (commandes PENDING depuis plus de {})", total, retryAfter);
+        }
+    }
+
+    private int retryChunk() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = orderRepository.claimPendingStockRequests(now.minus(retryAfter), batchSize);
+
+        for (Order order : orderRepository.findAllById(ids)) {
+            order.setStockRequestedAt(now);
+            orderEventProducer.publishStockReservationRequested(order);
+            log.info("Nouvelle demande de réservation du stock pour la commande {}", order.getId());
+        }
+        retried.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,13 @@
+package com.microcommerce.orders.stream;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement de statut poussé aux abonnés du flux SSE du client.
+ */
+public record OrderStatusEvent(Long orderId,
+                               String orderNumber,
+                               String previousStatus,
+                               String status,
+                               LocalDateTime changedAt) {
+}
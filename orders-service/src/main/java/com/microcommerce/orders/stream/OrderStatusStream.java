@@ -0,0 +1,291 @@
+package com.microcommerce.orders.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux SSE des changements de statut des commandes d'un client, alimenté en mémoire
+ * après le commit de chaque transition (voir StatusTransitionRecorder).
+ *
+ * Chaque abonné n'occupe qu'un SseEmitter et un tampon borné de orders.status-stream.buffer-size
+ * messages : aucun thread ne lui est réservé. Les envois sont faits par un petit pool partagé,
+ * jamais par le thread qui change le statut. Un abonné trop lent pour vider son tampon est
+ * fermé ; le navigateur se reconnecte (EventSource) et relit ses commandes une fois.
+ *
+ * Un envoi bloque sur le socket : un client dont la fenêtre TCP est bloquée retient un thread
+ * d'envoi jusqu'au délai d'écriture du conteneur. Un envoi qui dépasse orders.status-stream.send-timeout
+ * ferme l'abonné et un thread d'envoi supplémentaire prend le relais pendant que le thread bloqué
+ * attend (au plus orders.status-stream.max-stalled-sends) : les autres abonnés ne sont pas affamés.
+ *
+ * Seules les transitions faites par cette instance sont poussées.
+ *
+ * Métriques exposées :
+ * - orders.status.stream.subscribers : connexions ouvertes
+ * - orders.status.stream.sent : événements envoyés
+ * - orders.status.stream.overflow : abonnés fermés sur tampon plein
+ * - orders.status.stream.stalled : abonnés fermés sur envoi trop long
+ */
+@Component
+@Slf4j
+public class OrderStatusStream {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger openSubscribers = new AtomicInteger();
+    // Cœur = dispatch-threads + envois bloqués en cours ; maximum = dispatch-threads + max-stalled-sends
+    private final ThreadPoolExecutor dispatcher;
+    private final int dispatchThreads;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int bufferSize;
+    private final int maxPerClient;
+    private final Counter sent;
+    private final Counter overflow;
+    private final Counter stalled;
+
+    public OrderStatusStream(MeterRegistry meterRegistry,
+                             @Value("${orders.status-stream.timeout:30m}") Duration timeout,
+                             @Value("${orders.status-stream.buffer-size:16}") int bufferSize,
+                             @Value("${orders.status-stream.max-per-client:5}") int maxPerClient,
+                             @Value("${orders.status-stream.dispatch-threads:2}") int dispatchThreads,
+                             @Value("${orders.status-stream.send-timeout:5s}") Duration sendTimeout,
+                             @Value("${orders.status-stream.max-stalled-sends:32}") int maxStalledSends) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads + maxStalledSends,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-status-stream-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatchThreads = dispatchThreads;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.bufferSize = bufferSize;
+        this.maxPerClient = maxPerClient;
+        this.sent = Counter.builder("orders.status.stream.sent").register(meterRegistry);
+        this.overflow = Counter.builder("orders.status.stream.overflow").register(meterRegistry);
+        this.stalled = Counter.builder("orders.status.stream.stalled").register(meterRegistry);
+        Gauge.builder("orders.status.stream.subscribers", openSubscribers, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ouvre un flux pour le client. Au-delà de orders.status-stream.max-per-client connexions,
+     * la plus ancienne est fermée.
+     */
+    public SseEmitter subscribe(Long clientId) {
+        // Délai explicite : le délai asynchrone MVC par défaut est dimensionné pour l'export
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(clientId, emitter);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+
+        openSubscribers.incrementAndGet();
+        List<Subscriber> clientSubscribers = subscribers.compute(clientId, (id, list) -> {
+            List<Subscriber> updated = list != null ? list : new CopyOnWriteArrayList<>();
+            updated.add(subscriber);
+            return updated;
+        });
+        // Fermée hors de compute : la fermeture retire l'abonné de la même entrée
+        if (clientSubscribers.size() > maxPerClient) {
+            clientSubscribers.get(0).complete();
+        }
+
+        log.debug("Flux des statuts ouvert pour le client: {}", clientId);
+        return emitter;
+    }
+
+    public void publish(Long clientId, OrderStatusEvent event) {
+        List<Subscriber> clientSubscribers = subscribers.get(clientId);
+        if (clientSubscribers != null) {
+            clientSubscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    /**
+     * Commentaire SSE périodique : garde la connexion ouverte derrière les proxys
+     * et détecte les clients partis
+     */
+    @Scheduled(fixedDelayString = "${orders.status-stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(clientSubscribers -> clientSubscribers.forEach(subscriber -> {
+            if (subscriber.isIdle()) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }));
+    }
+
+    /**
+     * Ferme les abonnés dont l'envoi en cours dépasse send-timeout. Le thread bloqué ne peut pas être
+     * libéré (l'émetteur est verrouillé pendant l'envoi) : un thread d'envoi est ajouté à sa place
+     * jusqu'à ce que l'écriture se termine ou échoue.
+     */
+    @Scheduled(fixedDelayString = "${orders.status-stream.stall-check-interval-ms:1000}")
+    public void closeStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(clientSubscribers -> clientSubscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0L && now - startedAt > sendTimeoutNanos && subscriber.markStalled()) {
+                stalled.increment();
+                log.debug("Envoi bloqué sur le flux des statuts du client {}, connexion fermée", subscriber.clientId);
+                subscriber.close();
+                resizeDispatcher(1);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(clientSubscribers -> clientSubscribers.forEach(Subscriber::complete));
+        dispatcher.shutdown();
+    }
+
+    private synchronized void resizeDispatcher(int delta) {
+        int core = Math.max(dispatchThreads, Math.min(dispatcher.getCorePoolSize() + delta, dispatcher.getMaximumPoolSize()));
+        // Un cœur agrandi démarre aussitôt des threads pour les tâches en attente
+        dispatcher.setCorePoolSize(core);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.clientId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+        openSubscribers.decrementAndGet();
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final Long clientId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        // System.nanoTime() au début de l'envoi en cours, 0 hors envoi
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long clientId, SseEmitter emitter) {
+            this.clientId = clientId;
+            this.emitter = emitter;
+        }
+
+        boolean isIdle() {
+            return buffer.isEmpty() && !scheduled.get();
+        }
+
+        boolean markStalled() {
+            return stalled.compareAndSet(false, true);
+        }
+
+        void offer(Object message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                overflow.increment();
+                log.debug("Tampon du flux des statuts plein pour le client {}, connexion fermée", clientId);
+                close();
+                // Un envoi en cours verrouille l'émetteur : c'est alors le thread d'envoi qui le termine
+                if (!scheduled.get()) {
+                    completeEmitter();
+                }
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti ou émetteur déjà terminé
+                log.debug("Envoi impossible sur le flux des statuts du client {}: {}", clientId, e.getMessage());
+                complete();
+            } finally {
+                if (stalled.get()) {
+                    // Envoi bloqué enfin terminé : le thread de relais est rendu
+                    resizeDispatcher(-1);
+                }
+                scheduled.set(false);
+                if (closed.get()) {
+                    // Fermé pendant un envoi (bloqué ou tampon plein) : l'émetteur est maintenant libre
+                    completeEmitter();
+                } else if (!buffer.isEmpty() && scheduled.compareAndSet(false, true)) {
+                    // Message arrivé entre le dernier poll et la remise à false
+                    dispatcher.execute(this);
+                }
+            }
+        }
+
+        private void send(Object message) throws IOException {
+            sendStartedAt = System.nanoTime();
+            try {
+                if (message == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    return;
+                }
+                OrderStatusEvent event = (OrderStatusEvent) message;
+                emitter.send(SseEmitter.event()
+                        .id(event.orderId() + ":" + event.status())
+                        .name("order-status")
+                        .data(event, MediaType.APPLICATION_JSON));
+                sent.increment();
+            } finally {
+                sendStartedAt = 0L;
+            }
+        }
+
+        void complete() {
+            if (!closed.get()) {
+                close();
+                completeEmitter();
+            }
+        }
+
+        private void completeEmitter() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                buffer.clear();
+                remove(this);
+            }
+        }
+    }
+}
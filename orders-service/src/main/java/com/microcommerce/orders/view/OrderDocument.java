@@ -0,0 +1,155 @@
+package com.microcommerce.orders.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Document JSON pré-sérialisé d'une commande (format OrderResponse), tel que stocké dans order_view.
+ * Sérialisé tel quel : inséré dans une page sans être relu ni reconstruit.
+ */
+@JsonSerialize(using = OrderDocument.RawSerializer.class)
+public final class OrderDocument {
+
+    private final Long orderId;
+    private final LocalDateTime createdAt;
+    private final byte[] json;
+
+    public OrderDocument(Long orderId, LocalDateTime createdAt, byte[] json) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.json = json;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    static final class RawSerializer extends StdSerializer<OrderDocument> {
+
+        RawSerializer() {
+            super(OrderDocument.class);
+        }
+
+        @Override
+        public void serialize(OrderDocument document, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeRawValue(new RawUtf8Value(document.json));
+        }
+    }
+
+    /**
+     * Valeur JSON brute déjà encodée en UTF-8. Le générateur UTF-8 (réponses HTTP) copie les octets
+     * directement dans son tampon, sans décodage en String ; les variantes caractères ne servent
+     * qu'aux générateurs sur Writer.
+     */
+    static final class RawUtf8Value implements SerializableString {
+
+        private final byte[] utf8;
+
+        RawUtf8Value(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (buffer.length - offset < utf8.length) {
+                return -1;
+            }
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (buffer.remaining() < utf8.length) {
+                return -1;
+            }
+            buffer.put(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            String value = getValue();
+            if (buffer.length - offset < value.length()) {
+                return -1;
+            }
+            value.getChars(0, value.length(), buffer, offset);
+            return value.length();
+        }
+
+        // Valeur brute, jamais écrite comme chaîne JSON entre guillemets
+
+        @Override
+        public char[] asQuotedChars() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+}
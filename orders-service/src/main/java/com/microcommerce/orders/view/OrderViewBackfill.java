@@ -0,0 +1,70 @@
+package com.microcommerce.orders.view;
+
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.service.OrderReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Construit au démarrage les documents order_view manquants (commandes antérieures au modèle de lecture).
+ */
+@Component
+@Slf4j
+public class OrderViewBackfill {
+
+    private final OrderViewStore orderViewStore;
+    private final OrderReader orderReader;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OrderViewBackfill(OrderViewStore orderViewStore,
+                             OrderReader orderReader,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${order-view.backfill.enabled:true}") boolean enabled,
+                             @Value("${order-view.backfill.batch-size:500}") int batchSize) {
+        this.orderViewStore = orderViewStore;
+        this.orderReader = orderReader;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        long total = 0;
+        try {
+            List<Long> ids;
+            while (!(ids = orderViewStore.findOrderIdsWithoutView(batchSize)).isEmpty()) {
+                List<Long> batch = ids;
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (OrderResponse order : orderReader.findAll(batch)) {
+                        orderViewStore.insertIfAbsent(order);
+                    }
+                });
+                total += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // Les lectures reconstruisent les documents manquants depuis les entités
+            log.warn("Initialisation du modèle de lecture order_view interrompue après {} commandes: {}", total, e.getMessage());
+            return;
+        }
+
+        if (total > 0) {
+            log.info("{} documents order_view initialisés", total);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.microcommerce.orders.view;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.service.OrderMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Modèle de lecture order_view : un document JSON OrderResponse par commande.
+ *
+ * Réécrit dans la transaction de chaque modification de la commande, lu sans passer par les
+ * entités. Un document absent (commande antérieure, écriture différée du panier) n'est pas une
+ * erreur : l'appelant reconstruit alors la réponse depuis les entités.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderViewStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO order_view (order_id, client_id, created_at, document, updated_at)
+            VALUES (?, ?, ?, CAST(? AS json), CURRENT_TIMESTAMP)
+            ON CONFLICT (order_id) DO UPDATE SET
+                document = EXCLUDED.document,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * À appeler après saveAndFlush : le document reprend les valeurs écrites (dates d'audit, sous-totaux).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        jdbcTemplate.update(UPSERT_SQL, order.getId(), order.getClientId(), Timestamp.valueOf(createdAt),
+                serialize(OrderMapper.toResponse(order)));
+    }
+
+    // Initialisation : n'écrase jamais un document écrit entre-temps par une modification
+    void insertIfAbsent(OrderResponse order) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        jdbcTemplate.update("""
+                INSERT INTO order_view (order_id, client_id, created_at, document, updated_at)
+                VALUES (?, ?, ?, CAST(? AS json), CURRENT_TIMESTAMP)
+                ON CONFLICT (order_id) DO NOTHING
+                """, order.getId(), order.getClientId(), Timestamp.valueOf(createdAt), serialize(order));
+    }
+
+    public void deleteAll(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM order_view WHERE order_id IN (:ids)",
+                    new MapSqlParameterSource("ids", orderIds));
+        }
+    }
+
+    public Optional<byte[]> find(Long orderId) {
+        return jdbcTemplate.query("SELECT document FROM order_view WHERE order_id = ?",
+                        (rs, rowNum) -> rs.getBytes(1), orderId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Documents des commandes demandées, par ID ; les commandes sans document sont absentes de la map.
+     */
+    public Map<Long, OrderDocument> findAll(Collection<Long> orderIds) {
+        Map<Long, OrderDocument> documents = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return documents;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT order_id, created_at, document FROM order_view WHERE order_id IN (:ids)",
+                new MapSqlParameterSource("ids", orderIds),
+                rs -> {
+                    long orderId = rs.getLong(1);
+                    documents.put(orderId, new OrderDocument(orderId, rs.getTimestamp(2).toLocalDateTime(), rs.getBytes(3)));
+                });
+        return documents;
+    }
+
+    public OrderDocument toDocument(Order order) {
+        return toDocument(OrderMapper.toResponse(order));
+    }
+
+    public OrderDocument toDocument(OrderResponse response) {
+        try {
+            return new OrderDocument(response.getId(), response.getCreatedAt(), objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la commande impossible, ID: " + response.getId(), e);
+        }
+    }
+
+    List<Long> findOrderIdsWithoutView(int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT o.id FROM orders o
+                WHERE NOT EXISTS (SELECT 1 FROM order_view v WHERE v.order_id = o.id)
+                ORDER BY o.id
+                LIMIT ?
+                """, Long.class, limit);
+    }
+
+    private String serialize(OrderResponse order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la commande impossible, ID: " + order.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.microcommerce.orders.dto.request;
+
+import com.microcommerce.orders.dto.request.CartLineRequest.Action;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartLineRequestTest {
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void requiresAtLeastOneForAdd() {
+        assertThat(validator.validate(line(Action.ADD, null))).isNotEmpty();
+        assertThat(validator.validate(line(Action.ADD, 0))).isNotEmpty();
+        assertThat(validator.validate(line(Action.ADD, 1))).isEmpty();
+    }
+
+    @Test
+    void requiresAQuantityForSet() {
+        assertThat(validator.validate(line(Action.SET, null))).isNotEmpty();
+        assertThat(validator.validate(line(Action.SET, 0))).isEmpty();
+        assertThat(validator.validate(line(Action.SET, -1))).isNotEmpty();
+    }
+
+    @Test
+    void ignoresTheQuantityForRemove() {
+        assertThat(validator.validate(line(Action.REMOVE, null))).isEmpty();
+    }
+
+    private static CartLineRequest line(Action action, Integer quantity) {
+        CartLineRequest line = new CartLineRequest();
+        line.setAction(action);
+        line.setProductId(1L);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
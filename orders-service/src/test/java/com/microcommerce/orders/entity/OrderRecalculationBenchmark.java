@@ -0,0 +1,97 @@
+package com.microcommerce.orders.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalcul du total d'une commande de 1, 10 et 100 lignes : montants en centimes
+ * (Order.recalculateTotal) contre l'ancien calcul en BigDecimal (stream + reduce).
+ * Le profileur GC donne les octets alloués par recalcul (gc.alloc.rate.norm).
+ *
+ * Lancement : main() depuis l'IDE, ou après mvn test-compile :
+ * java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main OrderRecalculationBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderRecalculationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lines;
+
+    private Order order;
+
+    // Ancienne représentation : sous-totaux et frais en BigDecimal
+    private List<BigDecimal> legacySubtotals;
+    private BigDecimal legacyShippingCost;
+    private BigDecimal legacyTaxAmount;
+    private BigDecimal legacyDiscountAmount;
+
+    @Setup
+    public void setUp() {
+        order = Order.builder()
+                .shippingCost(499L)
+                .taxAmount(1_250L)
+                .discountAmount(300L)
+                .build();
+        legacySubtotals = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = OrderItem.builder()
+                    .productId((long) i)
+                    .unitPrice(1_999L + i)
+                    .quantity(1 + i % 3)
+                    .build();
+            item.calculateSubtotal();
+            order.getItems().add(item);
+            legacySubtotals.add(BigDecimal.valueOf(item.getSubtotal(), 2));
+        }
+        legacyShippingCost = new BigDecimal("4.99");
+        legacyTaxAmount = new BigDecimal("12.50");
+        legacyDiscountAmount = new BigDecimal("3.00");
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        order.recalculateTotal();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal legacyBigDecimal() {
+        // Ancien Order.recalculateTotal
+        BigDecimal subtotal = legacySubtotals.stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return subtotal
+                .add(legacyShippingCost)
+                .add(legacyTaxAmount)
+                .subtract(legacyDiscountAmount);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderRecalculationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package com.microcommerce.orders.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void convertsDecimalAmountsToCents() {
+        assertThat(Money.toMinor(new BigDecimal("19.99"))).isEqualTo(1_999L);
+        assertThat(Money.toMinor(new BigDecimal("20"))).isEqualTo(2_000L);
+        assertThat(Money.toMinor(new BigDecimal("-3.50"))).isEqualTo(-350L);
+    }
+
+    @Test
+    void roundsHalfUpToTheCent() {
+        assertThat(Money.toMinor(new BigDecimal("0.005"))).isEqualTo(1L);
+        assertThat(Money.toMinor(new BigDecimal("0.004"))).isEqualTo(0L);
+        assertThat(Money.toMinor(new BigDecimal("10.125"))).isEqualTo(1_013L);
+    }
+
+    @Test
+    void treatsAMissingAmountAsZero() {
+        assertThat(Money.toMinor(null)).isZero();
+    }
+
+    @Test
+    void rejectsAmountsBeyondALongOfCents() {
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("1e20")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void convertsCentsBackWithTwoDecimals() {
+        BigDecimal amount = Money.toDecimal(1_999L);
+
+        assertThat(amount).isEqualTo(new BigDecimal("19.99"));
+        assertThat(amount.scale()).isEqualTo(Money.SCALE);
+        assertThat(Money.toDecimal(0L)).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void roundTripsThroughTheColumnConverter() {
+        MinorUnitsConverter converter = new MinorUnitsConverter();
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(123_456L))).isEqualTo(123_456L);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
@@ -0,0 +1,38 @@
+package com.microcommerce.orders.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderPricingTest {
+
+    @Test
+    void multipliesUnitPriceByQuantity() {
+        assertThat(OrderPricing.lineSubtotal(1_999L, 3)).isEqualTo(5_997L);
+        assertThat(OrderPricing.lineSubtotal(1_999L, 0)).isZero();
+    }
+
+    @Test
+    void rejectsAnOverflowingLineSubtotal() {
+        assertThatThrownBy(() -> OrderPricing.lineSubtotal(Long.MAX_VALUE / 2, 3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void addsShippingAndTaxAndSubtractsTheDiscount() {
+        assertThat(OrderPricing.total(10_000L, 499L, 1_250L, 300L)).isEqualTo(11_449L);
+    }
+
+    @Test
+    void capsTheDiscountSoTheTotalIsNeverNegative() {
+        assertThat(OrderPricing.total(1_000L, 0L, 0L, 5_000L)).isZero();
+        assertThat(OrderPricing.total(1_000L, 200L, 100L, 1_300L)).isZero();
+    }
+
+    @Test
+    void rejectsAnOverflowingTotal() {
+        assertThatThrownBy(() -> OrderPricing.total(Long.MAX_VALUE, 1L, 0L, 0L))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
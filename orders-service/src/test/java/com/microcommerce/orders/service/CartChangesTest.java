@@ -0,0 +1,118 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.cache.ProductSnapshot;
+import com.microcommerce.orders.dto.request.CartLineRequest;
+import com.microcommerce.orders.dto.request.CartLineRequest.Action;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartChangesTest {
+
+    private static final Map<Long, ProductSnapshot> PRODUCTS = Map.of(
+            1L, product(1L, 10, true),
+            2L, product(2L, 3, true),
+            3L, product(3L, 10, false));
+
+    @Test
+    void addsToThePresentQuantity() {
+        Map<Long, Integer> changes = CartChanges.resolve(Map.of(1L, 2), List.of(line(Action.ADD, 1L, 3)), PRODUCTS);
+
+        assertThat(changes).containsExactly(Map.entry(1L, 5));
+    }
+
+    @Test
+    void setsAndRemovesInRequestOrder() {
+        Map<Long, Integer> changes = CartChanges.resolve(Map.of(1L, 2, 2L, 1),
+                List.of(line(Action.SET, 2L, 3), line(Action.REMOVE, 1L, null)), PRODUCTS);
+
+        assertThat(changes).containsExactly(Map.entry(2L, 3), Map.entry(1L, 0));
+    }
+
+    @Test
+    void appliesLinesOnTheSameProductCumulatively() {
+        Map<Long, Integer> changes = CartChanges.resolve(Map.of(),
+                List.of(line(Action.ADD, 1L, 2), line(Action.ADD, 1L, 3), line(Action.SET, 2L, 0)), PRODUCTS);
+
+        assertThat(changes).containsExactly(Map.entry(1L, 5));
+    }
+
+    @Test
+    void ignoresLinesWithoutEffect() {
+        Map<Long, Integer> changes = CartChanges.resolve(Map.of(1L, 2),
+                List.of(line(Action.SET, 1L, 2), line(Action.ADD, 2L, 1), line(Action.REMOVE, 2L, null)), PRODUCTS);
+
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void rejectsTheRemovalOfAnAbsentProduct() {
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(), List.of(line(Action.REMOVE, 1L, null)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUnavailableOrUnknownProducts() {
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(), List.of(line(Action.ADD, 3L, 1)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("non disponible");
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(), List.of(line(Action.ADD, 99L, 1)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("non disponible");
+    }
+
+    @Test
+    void checksStockOnTheFinalQuantity() {
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(2L, 2), List.of(line(Action.ADD, 2L, 2)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Stock insuffisant");
+    }
+
+    @Test
+    void rejectsAMissingQuantityForAddAndSet() {
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(1L, 2), List.of(line(Action.SET, 1L, null)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(1L, 2), List.of(line(Action.ADD, 1L, null)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(1L, 2), List.of(line(Action.ADD, 1L, 0)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAnOverflowingQuantity() {
+        assertThatThrownBy(() -> CartChanges.resolve(Map.of(1L, Integer.MAX_VALUE),
+                List.of(line(Action.ADD, 1L, 1)), PRODUCTS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void looksUpOnlyProductsGivenAPositiveQuantity() {
+        assertThat(CartChanges.productIdsToLookup(List.of(
+                line(Action.ADD, 1L, 2), line(Action.SET, 2L, 0), line(Action.REMOVE, 3L, null))))
+                .containsExactly(1L);
+    }
+
+    private static CartLineRequest line(Action action, Long productId, Integer quantity) {
+        CartLineRequest line = new CartLineRequest();
+        line.setAction(action);
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private static ProductSnapshot product(Long id, int stock, boolean active) {
+        return ProductSnapshot.builder()
+                .id(id)
+                .name("Produit " + id)
+                .sku("SKU-" + id)
+                .price(new BigDecimal("19.99"))
+                .stockAvailable(stock)
+                .active(active)
+                .build();
+    }
+}
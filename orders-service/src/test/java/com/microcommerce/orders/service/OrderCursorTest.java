@@ -0,0 +1,52 @@
+package com.microcommerce.orders.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsThePosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000);
+
+        OrderCursor decoded = OrderCursor.decode(new OrderCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.createdAt).isEqualTo(createdAt);
+        assertThat(decoded.id).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsATimestampWithoutSeconds() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThat(OrderCursor.decode(new OrderCursor(createdAt, 1L).encode()).createdAt).isEqualTo(createdAt);
+    }
+
+    @Test
+    void encodesAsUrlSafeBase64WithoutPadding() {
+        String token = new OrderCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26), 7L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[] {"", "%%%", encode("2026-03-14T15:09:26"), encode("pas-une-date|1"),
+                encode("2026-03-14T15:09:26|abc")}) {
+            assertThatThrownBy(() -> OrderCursor.decode(token))
+                    .as("jeton %s", token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Curseur de pagination invalide");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
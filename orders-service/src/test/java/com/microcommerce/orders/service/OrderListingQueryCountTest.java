@@ -0,0 +1,203 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.archive.ArchivedOrderReader;
+import com.microcommerce.orders.cache.ClientDirectory;
+import com.microcommerce.orders.cache.OrderOwnershipCache;
+import com.microcommerce.orders.client.ProductLookupClient;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.kafka.producer.OrderEventProducer;
+import com.microcommerce.orders.repository.OrderSearchRepository;
+import com.microcommerce.orders.view.OrderDocument;
+import com.microcommerce.orders.view.OrderViewStore;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nombre de requêtes JDBC des listes paginées (/my-orders, liste admin), comptées au niveau de la
+ * DataSource au travers de OrderService : page d'IDs, COUNT, documents order_view (JdbcTemplate),
+ * puis en-têtes et articles des seules commandes sans document, quelle que soit la taille de la page.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({OrderService.class, OrderReader.class, OrderViewStore.class, OrderListingQueryCountTest.QueryCounting.class})
+class OrderListingQueryCountTest {
+
+    private static final long CLIENT_ID = 42L;
+    private static final int ORDERS = 12;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    // Page d'IDs + COUNT + order_view
+    private static final long STATEMENTS_WITH_DOCUMENTS = 3;
+    // ... + en-têtes et articles des commandes sans document
+    private static final long STATEMENTS_WITH_MISSING_DOCUMENTS = 5;
+
+    @MockBean
+    private OrderEventProducer orderEventProducer;
+    @MockBean
+    private ProductLookupClient productLookupClient;
+    @MockBean
+    private OrderNumberGenerator orderNumberGenerator;
+    @MockBean
+    private CartResolver cartResolver;
+    @MockBean
+    private StatusTransitionRecorder statusTransitionRecorder;
+    @MockBean
+    private SalesStatsService salesStatsService;
+    @MockBean
+    private ArchivedOrderReader archivedOrderReader;
+    @MockBean
+    private OrderSearchRepository orderSearchRepository;
+    @MockBean
+    private OrderOwnershipCache orderOwnershipCache;
+    @MockBean
+    private ClientDirectory clientDirectory;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderViewStore orderViewStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Table hors modèle JPA, non créée par ddl-auto
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS order_view (
+                    order_id BIGINT PRIMARY KEY,
+                    client_id BIGINT NOT NULL,
+                    created_at TIMESTAMP NOT NULL,
+                    document VARBINARY(65536) NOT NULL,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .clientId(CLIENT_ID)
+                    .orderNumber("CMD-" + i)
+                    .status("PENDING")
+                    .clientEmail("client@example.com")
+                    .clientFirstName("Jean")
+                    .clientLastName("Dupont")
+                    .shippingAddress("{}")
+                    .billingAddress("{}")
+                    .build();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                order.addItem(OrderItem.builder()
+                        .productId((long) j)
+                        .productName("Produit " + j)
+                        .productSku("SKU-" + j)
+                        .unitPrice(1_000L)
+                        .quantity(1)
+                        .subtotal(1_000L)
+                        .build());
+            }
+            orders.add(entityManager.persist(order));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void clientListingCostsTheSameWhateverThePageSize() {
+        writeDocuments(false);
+        assertStatements(size -> orderService.getOrdersByClient(CLIENT_ID, 0, size, "createdAt"), STATEMENTS_WITH_DOCUMENTS);
+    }
+
+    @Test
+    void clientListingRebuildsMissingDocumentsInTwoStatements() {
+        writeDocuments(true);
+        assertStatements(size -> orderService.getOrdersByClient(CLIENT_ID, 0, size, "createdAt"), STATEMENTS_WITH_MISSING_DOCUMENTS);
+    }
+
+    @Test
+    void adminListingCostsTheSameWhateverThePageSize() {
+        writeDocuments(false);
+        assertStatements(size -> orderService.getAllOrders(0, size, "createdAt"), STATEMENTS_WITH_DOCUMENTS);
+    }
+
+    @Test
+    void adminListingRebuildsMissingDocumentsInTwoStatements() {
+        writeDocuments(true);
+        assertStatements(size -> orderService.getAllOrders(0, size, "createdAt"), STATEMENTS_WITH_MISSING_DOCUMENTS);
+    }
+
+    private interface PageLoader {
+        Page<OrderDocument> load(int size);
+    }
+
+    private void assertStatements(PageLoader loader, long expected) {
+        for (int size : new int[] {2, 10}) {
+            QueryCountHolder.clear();
+
+            Page<OrderDocument> page = loader.load(size);
+
+            long statements = QueryCountHolder.getGrandTotal().getTotal();
+            assertThat(page.getContent()).hasSize(size);
+            assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+            assertThat(statements).as("requêtes pour une page de %d", size).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * @param skipOdd sans document pour une commande sur deux : chaque page en contient
+     */
+    private void writeDocuments(boolean skipOdd) {
+        for (int i = 0; i < orders.size(); i += skipOdd ? 2 : 1) {
+            Order order = orders.get(i);
+            jdbcTemplate.update("INSERT INTO order_view (order_id, client_id, created_at, document) VALUES (?, ?, ?, ?)",
+                    order.getId(), order.getClientId(), Timestamp.valueOf(order.getCreatedAt()),
+                    orderViewStore.toDocument(order).getJson());
+        }
+    }
+
+    @TestConfiguration
+    static class QueryCounting {
+
+        // Toutes les requêtes passent par la DataSource : Hibernate comme JdbcTemplate
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? ProxyDataSourceBuilder.create(dataSource).countQuery().build()
+                            : bean;
+                }
+            };
+        }
+    }
+}
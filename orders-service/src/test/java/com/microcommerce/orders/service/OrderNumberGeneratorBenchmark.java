@@ -0,0 +1,75 @@
+package com.microcommerce.orders.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Générateur Snowflake comparé à l'ancien format (DateTimeFormatter + UUID aléatoire),
+ * sur un et quatre threads ; le profileur GC donne les octets alloués par numéro (gc.alloc.rate.norm).
+ *
+ * Lancement : main() depuis l'IDE, ou après mvn test-compile :
+ * java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main OrderNumberGeneratorBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderNumberGeneratorBenchmark {
+
+    private final SnowflakeOrderNumberGenerator snowflake = new SnowflakeOrderNumberGenerator(() -> 1L);
+
+    @Benchmark
+    public String snowflake() {
+        return snowflake.nextOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String snowflakeContended() {
+        return snowflake.nextOrderNumber();
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyOrderNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyContended() {
+        return legacyOrderNumber();
+    }
+
+    // Ancienne implémentation de OrderService.generateOrderNumber, conservée pour comparaison
+    private static String legacyOrderNumber() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return "ORD-" + timestamp + "-" + uuid;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderNumberGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
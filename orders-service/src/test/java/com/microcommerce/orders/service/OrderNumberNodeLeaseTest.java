@@ -0,0 +1,86 @@
+package com.microcommerce.orders.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderNumberNodeLeaseTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void leasesAFreeNodeAtStartup() {
+        leaseAvailable(7);
+
+        assertThat(new OrderNumberNodeLease(jdbcTemplate, Duration.ofSeconds(30)).nodeId()).isEqualTo(7);
+    }
+
+    @Test
+    void refusesToStartWithoutAFreeNode() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> new OrderNumberNodeLease(jdbcTemplate, Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsAnOutOfRangeNode() {
+        leaseAvailable(1024);
+
+        assertThatThrownBy(() -> new OrderNumberNodeLease(jdbcTemplate, Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void stopsIssuingOnceTheLeaseIsNoLongerRenewed() {
+        leaseAvailable(7);
+        // Bail de durée nulle : expiré dès la location, comme après des renouvellements en échec
+        OrderNumberNodeLease lease = new OrderNumberNodeLease(jdbcTemplate, Duration.ZERO);
+        when(jdbcTemplate.update(contains("SET leased_until"), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("base injoignable"));
+
+        lease.renew();
+
+        assertThatThrownBy(lease::nodeId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void leasesAgainWhenTheNodeWasTakenOver() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(7L), List.of(8L));
+        OrderNumberNodeLease lease = new OrderNumberNodeLease(jdbcTemplate, Duration.ofSeconds(30));
+        when(jdbcTemplate.update(contains("SET leased_until"), any(Object[].class))).thenReturn(0);
+
+        lease.renew();
+
+        assertThat(lease.nodeId()).isEqualTo(8);
+    }
+
+    @Test
+    void releasesTheNodeOnShutdown() {
+        leaseAvailable(7);
+        OrderNumberNodeLease lease = new OrderNumberNodeLease(jdbcTemplate, Duration.ofSeconds(30));
+
+        lease.release();
+
+        verify(jdbcTemplate).update(contains("owner = NULL"), eq(7L), anyString());
+        assertThatThrownBy(lease::nodeId).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void leaseAvailable(long nodeId) {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(nodeId));
+    }
+}
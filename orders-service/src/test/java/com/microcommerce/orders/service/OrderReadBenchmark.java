@@ -0,0 +1,202 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.dto.projection.OrderItemRow;
+import com.microcommerce.orders.dto.projection.OrderRow;
+import com.microcommerce.orders.dto.response.OrderResponse;
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.entity.OrderItem;
+import com.microcommerce.orders.repository.OrderItemRepository;
+import com.microcommerce.orders.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation par lecture d'une commande : entité Order + articles hydratés puis convertis
+ * (findWithItemsById + OrderMapper.toResponse(Order), OrderReader.find) contre projections
+ * OrderRow / OrderItemRow (deux requêtes, chemin des pages de OrderReader.findAll), chacune dans
+ * sa transaction en lecture seule.
+ *
+ * Mesuré (Spring Boot 3.2.12) : l'entité alloue moins jusqu'à une dizaine d'articles
+ * (23,7 Ko contre 36,5 Ko pour 1 article, 35,3 Ko contre 42,9 Ko pour 10), la projection
+ * seulement au-delà (71,6 Ko contre 91,7 Ko pour 50) : la lecture par ID garde l'entité.
+ *
+ * entity / projection passent par les repositories, comme en production ; entityQuery /
+ * projectionQuery exécutent les mêmes requêtes JPQL directement sur l'EntityManager pour isoler
+ * l'hydratation. Un écart important entre les deux familles signale un surcoût de Spring Data
+ * (Spring Data JPA 3.2.1 réécrivait chaque requête @Query à chaque appel).
+ *
+ * H2 en mémoire tourne dans le même processus : ses allocations sont comprises dans
+ * gc.alloc.rate.norm pour tous les chemins, seule la différence est significative.
+ *
+ * Lancement : main() depuis l'IDE, ou après mvn test-compile :
+ * java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main OrderReadBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderReadBenchmark {
+
+    private static final String ENTITY_QUERY = "SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id";
+
+    // Copie de OrderItemRepository.findRowsByOrderIdIn
+    private static final String ITEM_ROWS_QUERY = """
+            SELECT new com.microcommerce.orders.dto.projection.OrderItemRow(
+                oi.order.id, oi.id, oi.productId, oi.productName, oi.productDescription, oi.productSku,
+                oi.unitPrice, oi.quantity, oi.subtotal, oi.imageUrl, oi.unitWeight, oi.createdAt)
+            FROM OrderItem oi
+            WHERE oi.order.id IN :orderIds
+            ORDER BY oi.order.id, oi.id
+            """;
+
+    @Param({"1", "10", "50"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private Long orderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Arguments de ligne de commande : prioritaires sur application.yml (PostgreSQL)
+        context = new SpringApplicationBuilder(Config.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:order-read-benchmark",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        orderRepository = context.getBean(OrderRepository.class);
+        orderItemRepository = context.getBean(OrderItemRepository.class);
+        // Proxy partagé : lié à la transaction en cours
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        Order order = Order.builder()
+                .clientId(1L)
+                .orderNumber("ORD-0000000000000000001")
+                .status("PENDING")
+                .clientEmail("client@example.com")
+                .clientFirstName("Jean")
+                .clientLastName("Dupont")
+                .shippingAddress("{\"city\":\"Paris\"}")
+                .billingAddress("{\"city\":\"Paris\"}")
+                .build();
+        for (int i = 0; i < items; i++) {
+            order.addItem(OrderItem.builder()
+                    .productId((long) i)
+                    .productName("Produit " + i)
+                    .productDescription("Description du produit " + i)
+                    .productSku("SKU-" + i)
+                    .unitPrice(1_999L)
+                    .quantity(2)
+                    .subtotal(3_998L)
+                    .build());
+        }
+        orderId = new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .execute(tx -> orderRepository.save(order).getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderResponse entity() {
+        return readOnlyTransaction.execute(tx -> orderRepository.findWithItemsById(orderId)
+                .map(OrderMapper::toResponse)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public OrderResponse projection() {
+        return readOnlyTransaction.execute(tx -> OrderMapper.toResponse(
+                orderRepository.findRowsByIdIn(List.of(orderId)).get(0),
+                orderItemRepository.findRowsByOrderIdIn(List.of(orderId))));
+    }
+
+    @Benchmark
+    public OrderResponse entityQuery() {
+        return readOnlyTransaction.execute(tx -> OrderMapper.toResponse(entityManager
+                .createQuery(ENTITY_QUERY, Order.class)
+                .setParameter("id", orderId)
+                .getSingleResult()));
+    }
+
+    @Benchmark
+    public OrderResponse projectionQuery() {
+        return readOnlyTransaction.execute(tx -> {
+            OrderRow order = entityManager
+                    .createQuery(OrderRepository.ORDER_ROW + "WHERE o.id = :id", OrderRow.class)
+                    .setParameter("id", orderId)
+                    .getSingleResult();
+            List<OrderItemRow> rows = entityManager
+                    .createQuery(ITEM_ROWS_QUERY, OrderItemRow.class)
+                    .setParameter("orderIds", List.of(orderId))
+                    .getResultList();
+            return OrderMapper.toResponse(order, rows);
+        });
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class
+    })
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @EnableJpaAuditing
+    static class Config {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.microcommerce.orders.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    @Test
+    void formatsAsPrefixAndNineteenDigits() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(() -> 1L);
+
+        assertThat(generator.nextOrderNumber()).hasSize(23).matches("ORD-\\d{19}");
+    }
+
+    @Test
+    void numbersAreStrictlyIncreasingAsStrings() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(() -> 1L);
+
+        // Bien plus que 4096 numéros par milliseconde : la séquence s'épuise et déborde sur l'horodatage
+        String previous = generator.nextOrderNumber();
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextOrderNumber();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void encodesTheNodeId() {
+        long id = new SnowflakeOrderNumberGenerator(() -> 1023L).nextId();
+
+        assertThat((id >>> 12) & 1023).isEqualTo(1023);
+    }
+
+    @Test
+    void twoNodesNeverCollide() {
+        SnowflakeOrderNumberGenerator node1 = new SnowflakeOrderNumberGenerator(() -> 1L);
+        SnowflakeOrderNumberGenerator node2 = new SnowflakeOrderNumberGenerator(() -> 2L);
+
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(numbers.add(node1.nextOrderNumber())).isTrue();
+            assertThat(numbers.add(node2.nextOrderNumber())).isTrue();
+        }
+    }
+
+    @Test
+    void concurrentCallersGetDistinctNumbers() throws Exception {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(() -> 1L);
+        int threads = 4;
+        int perThread = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<List<String>> task = () -> {
+                    List<String> numbers = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(generator.nextOrderNumber());
+                    }
+                    return numbers;
+                };
+                results.add(executor.submit(task));
+            }
+
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                all.addAll(result.get());
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void issuesNothingWithoutAValidLease() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(() -> {
+            throw new IllegalStateException("Bail du nœud de numérotation expiré");
+        });
+
+        assertThatThrownBy(generator::nextOrderNumber).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.microcommerce.orders.service;
+
+import com.microcommerce.orders.entity.Order;
+import com.microcommerce.orders.kafka.event.StockReservationEvent;
+import com.microcommerce.orders.repository.OrderRepository;
+import com.microcommerce.orders.view.OrderViewStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StockReservationHandlerTest {
+
+    private static final long ORDER_ID = 1000L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderViewStore orderViewStore = mock(OrderViewStore.class);
+    private final StatusTransitionRecorder statusTransitionRecorder = mock(StatusTransitionRecorder.class);
+    private final SalesStatsService salesStatsService = mock(SalesStatsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StockReservationHandler handler = new StockReservationHandler(orderRepository, orderViewStore,
+            statusTransitionRecorder, salesStatsService, meterRegistry);
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = Order.builder()
+                .id(ORDER_ID)
+                .clientId(42L)
+                .orderNumber("ORD-0000000000000000001")
+                .status("PENDING")
+                .validatedAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        when(orderRepository.findByIdForUpdate(ORDER_ID)).thenAnswer(invocation -> Optional.of(order));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void reservedConfirmsThePendingOrder() {
+        handler.apply(response("RESERVED"));
+
+        assertThat(order.getStatus()).isEqualTo("CONFIRMED");
+        verify(orderViewStore).refresh(order);
+        verify(statusTransitionRecorder).record(eq(order), eq("PENDING"), eq("Stock réservé"), any());
+        verifyNoInteractions(salesStatsService);
+    }
+
+    @Test
+    void aReplayedReservedChangesNothing() {
+        handler.apply(response("RESERVED"));
+        handler.apply(response("RESERVED"));
+
+        assertThat(order.getStatus()).isEqualTo("CONFIRMED");
+        verify(orderRepository, times(1)).saveAndFlush(any());
+        assertThat(meterRegistry.counter("orders.stock.reservation.ignored").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedClosesTheOrderAndCancelsTheSale() {
+        handler.apply(rejected());
+
+        assertThat(order.getStatus()).isEqualTo("STOCK_REJECTED");
+        verify(salesStatsService).recordCancelled(order);
+        verify(statusTransitionRecorder).record(eq(order), eq("PENDING"), eq("Stock insuffisant: 7 (1/2)"), any());
+    }
+
+    @Test
+    void aReservedRetryAfterARejectionIsIgnored() {
+        handler.apply(rejected());
+        // Réponse à une demande renvoyée avant le refus, arrivée après lui
+        handler.apply(response("RESERVED"));
+
+        assertThat(order.getStatus()).isEqualTo("STOCK_REJECTED");
+        verify(orderRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void aResponseAfterTheCancellationIsIgnored() {
+        // Commande annulée avant que la réservation ne soit appliquée
+        order.setStatus("CANCELLED");
+
+        handler.apply(response("RESERVED"));
+
+        assertThat(order.getStatus()).isEqualTo("CANCELLED");
+        verify(orderRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(orderViewStore, statusTransitionRecorder, salesStatsService);
+    }
+
+    @Test
+    void errorLeavesTheOrderPending() {
+        handler.apply(response("ERROR"));
+
+        assertThat(order.getStatus()).isEqualTo("PENDING");
+        // Pas même de verrou : le retrier renverra la demande
+        verify(orderRepository, never()).findByIdForUpdate(anyLong());
+        verifyNoInteractions(orderViewStore, statusTransitionRecorder, salesStatsService);
+        assertThat(meterRegistry.counter("orders.stock.reservation.retryable").count()).isEqualTo(1);
+    }
+
+    @Test
+    void anUnknownOrderIsIgnored() {
+        when(orderRepository.findByIdForUpdate(ORDER_ID)).thenReturn(Optional.empty());
+
+        handler.apply(response("RESERVED"));
+
+        verify(orderRepository, never()).saveAndFlush(any());
+        assertThat(meterRegistry.counter("orders.stock.reservation.ignored").count()).isEqualTo(1);
+    }
+
+    private static StockReservationEvent response(String result) {
+        return StockReservationEvent.builder().orderId(ORDER_ID).result(result).build();
+    }
+
+    private static StockReservationEvent rejected() {
+        return StockReservationEvent.builder()
+                .orderId(ORDER_ID)
+                .result("REJECTED")
+                .rejectedItems(List.of(StockReservationEvent.RejectedItem.builder()
+                        .productId(7L).requested(2).available(1).build()))
+                .reason("Stock insuffisant")
+                .build();
+    }
+}
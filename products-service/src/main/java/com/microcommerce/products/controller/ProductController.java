@@ -1,5 +1,6 @@
 package com.microcommerce.products.controller;
 
+import com.microcommerce.products.dto.response.CursorPageResponse;
 import com.microcommerce.products.dto.response.ProductResponse;
 import com.microcommerce.products.dto.response.StockHistoryResponse;
 import com.microcommerce.products.dto.response.ErrorResponse;
@@ -15,9 +16,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -38,14 +36,16 @@ public class ProductController {
     @Operation(
         summary = "Lister tous les produits",
         description = """
-            Récupère la liste paginée de tous les produits actifs du catalogue.
+            Récupère la liste des produits actifs du catalogue, par pagination par curseur :
+            le coût d'une page ne dépend pas de sa profondeur et aucun total n'est calculé.
             
             **Accès :** Public (aucune authentification requise)
             
             **Paramètres de pagination :**
-            - `page` : Numéro de page (commence à 0)
+            - `cursor` : Jeton `nextCursor` de la page précédente (absent pour la première page)
             - `size` : Nombre d'éléments par page (max 100)
-            - `sort` : Tri par propriété avec direction (ex: name,asc)
+            - `sort` : Tri par propriété avec direction (ex: name,asc), lu sur la première page
+              uniquement : le curseur conserve le tri de la page qui l'a produit
             
             **Propriétés de tri disponibles :**
             - `id` : ID du produit
@@ -53,12 +53,13 @@ public class ProductController {
             - `price` : Prix
             - `stockAvailable` : Stock disponible
             - `createdAt` : Date de création
-            - `category.name` : Nom de catégorie
+            - `updatedAt` : Date de modification
+            - `sku` : Référence
             
             **Exemples d'utilisation :**
             - Tri par nom : `sort=name,asc`
             - Tri par prix : `sort=price,desc`
-            - Multi-tri : `sort=category.name,asc&sort=name,asc`
+            - Page suivante : `cursor=<nextCursor>`
             """
     )
     @ApiResponses(value = {
@@ -66,10 +67,10 @@ public class ProductController {
             responseCode = "200",
             description = "Liste des produits récupérée avec succès",
             content = @Content(
-                schema = @Schema(implementation = Page.class),
+                schema = @Schema(implementation = CursorPageResponse.class),
                 examples = @ExampleObject(
                     name = "Exemple de réponse",
-                    description = "Page de produits avec pagination",
+                    description = "Page de produits paginée par curseur",
                     value = """
                     {
                       "content": [
@@ -79,30 +80,14 @@ public class ProductController {
                           "description": "Apple iPhone 15 Pro 128GB Smartphone",
                           "price": 1199.99,
                           "stockAvailable": 50,
-                          "stockReserved": 5,
-                          "stockMinimum": 10,
-                          "totalStock": 55,
                           "sku": "APPLE-IP15P-128",
-                          "weight": 187.0,
                           "imageUrl": "/images/iphone15pro.jpg",
-                          "active": true,
-                          "stockStatus": "IN_STOCK",
-                          "inStock": true,
-                          "lowStock": false
+                          "active": true
                         }
                       ],
-                      "pageable": {
-                        "pageNumber": 0,
-                        "pageSize": 20,
-                        "sort": {
-                          "sorted": true,
-                          "empty": false
-                        }
-                      },
-                      "totalElements": 1,
-                      "totalPages": 1,
-                      "first": true,
-                      "last": true
+                      "size": 1,
+                      "hasNext": true,
+                      "nextCursor": "aWR8YXNjfDF8"
                     }
                     """
                 )
@@ -110,7 +95,7 @@ public class ProductController {
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "Paramètres de tri invalides",
+            description = "Paramètres de tri ou curseur invalides",
             content = @Content(
                 schema = @Schema(implementation = ErrorResponse.class),
                 examples = @ExampleObject(
@@ -130,34 +115,69 @@ public class ProductController {
         )
     })
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
-            @Parameter(description = "Numéro de page (commence à 0)", example = "0")
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getAllProducts(
+            @Parameter(description = "Curseur de la page suivante (optionnel)")
+            @RequestParam(required = false) String cursor,
             @Parameter(description = "Taille de la page", example = "20")
             @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Tri (format: propriété,direction)", example = "name,asc")
             @RequestParam(defaultValue = "id,asc") String sort) {
         
-        log.info("Récupération de la liste des produits - Page: {}, Taille: {}, Sort: {}", 
-                page, size, sort);
+        log.info("Récupération de la liste des produits - Curseur: {}, Taille: {}, Sort: {}", 
+                cursor, size, sort);
         
-        // Données de test pour le moment
-        List<ProductResponse> products = createTestProducts();
+        CursorPageResponse<ProductResponse> productPage = productService.getAllProducts(cursor, size, sort);
         
-        // Créer le Pageable à partir des paramètres
-        Pageable pageable = PageRequest.of(page, size);
+        log.info("Liste des produits récupérée avec succès - {} produits, page suivante: {}", 
+                productPage.getSize(), productPage.isHasNext());
         
-        // Simulation de la pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), products.size());
-        List<ProductResponse> pageContent = products.subList(start, end);
+        return ResponseEntity.ok(productPage);
+    }
+
+    @Operation(
+        summary = "Instantané du catalogue",
+        description = """
+            Retourne tous les produits actifs avec les seuls champs nécessaires au panier
+            (id, nom, SKU, prix, stock, image).
+            
+            **Accès :** Public (aucune authentification requise)
+            
+            **Utilisation :** initialisation du cache catalogue d'orders-service au démarrage
+            """
+    )
+    @ApiResponse(responseCode = "200", description = "Instantané du catalogue récupéré avec succès")
+    @GetMapping("/snapshot")
+    public ResponseEntity<List<ProductResponse>> getCatalogSnapshot() {
+        log.info("Récupération de l'instantané du catalogue");
         
-        Page<ProductResponse> productPage = new PageImpl<>(pageContent, pageable, products.size());
+        List<ProductResponse> snapshot = productService.getCatalogSnapshot();
         
-        log.info("Liste des produits récupérée avec succès - {} produits trouvés", 
-                productPage.getTotalElements());
+        log.info("Instantané du catalogue récupéré - {} produits", snapshot.size());
+        return ResponseEntity.ok(snapshot);
+    }
+
+    @Operation(
+        summary = "Recherche groupée de produits",
+        description = """
+            Retourne les produits actifs correspondant aux IDs fournis, en une seule requête.
+            Les IDs inconnus ou inactifs sont simplement absents de la réponse.
+            
+            **Accès :** Public (aucune authentification requise)
+            
+            **Exemple :** `/api/v1/products/batch?ids=1&ids=2&ids=5` (500 IDs maximum)
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Produits récupérés avec succès"),
+        @ApiResponse(responseCode = "400", description = "Trop d'IDs demandés")
+    })
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(
+            @Parameter(description = "IDs des produits", required = true, example = "1")
+            @RequestParam List<Long> ids) {
         
-        return ResponseEntity.ok(productPage);
+        log.debug("Recherche groupée de {} produits", ids.size());
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
     }
 
     @Operation(
@@ -0,0 +1,29 @@
+package com.microcommerce.products.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page obtenue par pagination par curseur (keyset) : pas de total,
+ * seulement un jeton opaque pour demander la page suivante.
+ */
+@Data
+@Builder
+@Schema(description = "Page de résultats paginée par curseur")
+public class CursorPageResponse<T> {
+
+    @Schema(description = "Éléments de la page")
+    private List<T> content;
+
+    @Schema(description = "Nombre d'éléments de la page", example = "20")
+    private int size;
+
+    @Schema(description = "Indique s'il existe une page suivante", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Jeton à repasser tel quel dans le paramètre cursor ; null sur la dernière page")
+    private String nextCursor;
+}
@@ -1,6 +1,8 @@
 package com.microcommerce.products.kafka.consumer;
 
 import com.microcommerce.products.kafka.event.OrderEvent;
+import com.microcommerce.products.kafka.event.StockReservationEvent;
+import com.microcommerce.products.kafka.producer.ProductEventProducer;
 import com.microcommerce.products.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,12 +13,15 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventConsumer {
 
     private final ProductService productService;
+    private final ProductEventProducer productEventProducer;
 
     @KafkaListener(
         topics = "order-events",
@@ -32,9 +37,10 @@ public class OrderEventConsumer {
         
         try {
             log.info("Received order event from topic: {}, partition: {}, key: {}", topic, partition, key);
-            log.info("Order event details - Type: {}, OrderId: {}, Items count: {}", 
+            log.info("Order event details - Type: {}, OrderId: {}, Items count: {}, Cart version: {}", 
                     orderEvent.getEventType(), orderEvent.getOrderId(), 
-                    orderEvent.getItems() != null ? orderEvent.getItems().size() : 0);
+                    orderEvent.getItems() != null ? orderEvent.getItems().size() : 0,
+                    orderEvent.getCartVersion());
             log.debug("Order event payload: {}", orderEvent);
 
             processOrderEvent(orderEvent);
@@ -49,6 +55,12 @@ public class OrderEventConsumer {
     }
 
     private void processOrderEvent(OrderEvent orderEvent) {
+        // Les deltas de panier ne transportent que la ligne modifiée (champ item)
+        if ("ITEM_ADDED".equals(orderEvent.getEventType()) || "ITEM_REMOVED".equals(orderEvent.getEventType())) {
+            processCartDelta(orderEvent);
+            return;
+        }
+
         if (orderEvent.getItems() == null || orderEvent.getItems().isEmpty()) {
             log.warn("Événement de commande sans articles: {}", orderEvent.getEventType());
             return;
@@ -57,7 +69,13 @@ public class OrderEventConsumer {
         switch (orderEvent.getEventType()) {
             case "ORDER_CONFIRMED":
                 log.info("Traitement de la confirmation de commande ID: {}", orderEvent.getOrderId());
-                productService.processOrderStockReduction(orderEvent.getItems(), orderEvent.getOrderId());
+                reserveOrderStock(orderEvent);
+                break;
+
+            case "STOCK_RESERVATION_REQUESTED":
+                // Commande restée PENDING (erreur ou réponse perdue) : la réservation est idempotente
+                log.info("Nouvelle demande de réservation du stock de la commande ID: {}", orderEvent.getOrderId());
+                reserveOrderStock(orderEvent);
                 break;
                 
             case "ORDER_CANCELLED":
@@ -76,19 +94,46 @@ public class OrderEventConsumer {
                 // Cela pourrait nécessiter de comparer l'ancien et le nouveau contenu
                 break;
                 
-            case "ITEM_ADDED":
-                log.debug("Article ajouté à la commande ID: {}", orderEvent.getOrderId());
-                // Pas d'action sur le stock tant que la commande n'est pas confirmée
-                break;
-                
-            case "ITEM_REMOVED":
-                log.debug("Article retiré de la commande ID: {}", orderEvent.getOrderId());
-                // Pas d'action sur le stock tant que la commande n'est pas confirmée
-                break;
-                
             default:
                 log.warn("Type d'événement de commande non géré: {} pour commande ID: {}", 
                         orderEvent.getEventType(), orderEvent.getOrderId());
         }
     }
+
+    /**
+     * Réserve le stock puis publie le résultat sur stock-reservations, après le commit de la réservation.
+     * Une erreur inattendue est renvoyée (ERROR) : la commande reste PENDING et orders-service
+     * renvoie la demande (STOCK_RESERVATION_REQUESTED) ; une réponse perdue est couverte de la même façon.
+     */
+    private void reserveOrderStock(OrderEvent orderEvent) {
+        Long orderId = orderEvent.getOrderId();
+        List<StockReservationEvent.RejectedItem> rejected;
+        try {
+            rejected = productService.processOrderStockReduction(orderEvent.getItems(), orderId);
+        } catch (Exception e) {
+            log.error("Erreur lors de la réservation du stock de la commande ID: {}", orderId, e);
+            productEventProducer.publishStockReservation(orderId, "ERROR", List.of(), e.getMessage());
+            return;
+        }
+
+        if (rejected.isEmpty()) {
+            productEventProducer.publishStockReservation(orderId, "RESERVED", List.of(), null);
+        } else {
+            productEventProducer.publishStockReservation(orderId, "REJECTED", rejected, "Stock insuffisant");
+        }
+    }
+
+    private void processCartDelta(OrderEvent orderEvent) {
+        OrderEvent.OrderItemEvent item = orderEvent.getItem();
+        if (item == null) {
+            log.warn("Delta de panier sans article: {} pour commande ID: {}", 
+                    orderEvent.getEventType(), orderEvent.getOrderId());
+            return;
+        }
+
+        // Pas d'action sur le stock tant que la commande n'est pas confirmée :
+        // ORDER_CONFIRMED transporte l'instantané complet des articles
+        log.debug("Panier {} v{} - produit ID: {}, quantité: {}", 
+                orderEvent.getOrderId(), orderEvent.getCartVersion(), item.getProductId(), item.getQuantity());
+    }
 }
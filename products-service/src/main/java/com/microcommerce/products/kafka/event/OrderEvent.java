@@ -24,7 +24,12 @@ public class OrderEvent {
     private String clientEmail;
     private String status;
     private BigDecimal totalAmount;
+    // Instantané complet : ORDER_CREATED, ORDER_UPDATED, ORDER_CONFIRMED, ORDER_CANCELLED
     private List<OrderItemEvent> items;
+    // Delta : seule la ligne modifiée pour ITEM_ADDED / ITEM_REMOVED (quantité résultante, 0 si retirée)
+    private OrderItemEvent item;
+    // Version du panier après la modification, pour ordonner et dédupliquer les deltas
+    private Long cartVersion;
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime timestamp;
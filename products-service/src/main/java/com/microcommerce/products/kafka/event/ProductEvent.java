@@ -25,6 +25,7 @@ public class ProductEvent {
     private Integer previousStock;
     private Integer newStock;
     private String reason;
+    private String imageUrl;
     private Boolean active;
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
@@ -0,0 +1,45 @@
+package com.microcommerce.products.kafka.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Réponse à ORDER_CONFIRMED publiée sur stock-reservations (clé : ID de la commande).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationEvent {
+
+    private String eventId;
+    private String eventType; // STOCK_RESERVATION_RESULT
+    private Long orderId;
+    private String result; // RESERVED, REJECTED, ERROR
+    // Articles non réservables (REJECTED) : aucun article de la commande n'est alors réservé
+    private List<RejectedItem> rejectedItems;
+    private String reason;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+
+    // Métadonnées de l'événement
+    private String source;
+    private String version;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedItem {
+        private Long productId;
+        private Integer requested;
+        private Integer available;
+    }
+}
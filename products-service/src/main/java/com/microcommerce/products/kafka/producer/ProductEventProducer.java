@@ -2,6 +2,7 @@ package com.microcommerce.products.kafka.producer;
 
 import com.microcommerce.products.entity.Product;
 import com.microcommerce.products.kafka.event.ProductEvent;
+import com.microcommerce.products.kafka.event.StockReservationEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -9,6 +10,7 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -20,6 +22,7 @@ public class ProductEventProducer {
     private final KafkaTemplate<String, Object> kafkaTemplate;
     
     private static final String PRODUCT_EVENTS_TOPIC = "product-events";
+    private static final String STOCK_RESERVATIONS_TOPIC = "stock-reservations";
 
     public void publishProductCreated(Product product) {
         ProductEvent event = ProductEvent.builder()
@@ -30,6 +33,7 @@ public class ProductEventProducer {
                 .sku(product.getSku())
                 .price(product.getPrice())
                 .stockAvailable(product.getStockAvailable())
+                .imageUrl(product.getImageUrl())
                 .active(product.getActive())
                 .timestamp(LocalDateTime.now())
                 .source("products-service")
@@ -48,6 +52,7 @@ public class ProductEventProducer {
                 .sku(product.getSku())
                 .price(product.getPrice())
                 .stockAvailable(product.getStockAvailable())
+                .imageUrl(product.getImageUrl())
                 .active(product.getActive())
                 .timestamp(LocalDateTime.now())
                 .source("products-service")
@@ -57,6 +62,22 @@ public class ProductEventProducer {
         publishEvent(event);
     }
 
+    public void publishProductDeleted(Product product) {
+        ProductEvent event = ProductEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("PRODUCT_DELETED")
+                .productId(product.getId())
+                .name(product.getName())
+                .sku(product.getSku())
+                .active(false)
+                .timestamp(LocalDateTime.now())
+                .source("products-service")
+                .version("1.0")
+                .build();
+
+        publishEvent(event);
+    }
+
     public void publishStockUpdated(Product product, Integer previousStock, String reason) {
         ProductEvent event = ProductEvent.builder()
                 .eventId(UUID.randomUUID().toString())
@@ -114,6 +135,32 @@ public class ProductEventProducer {
         publishEvent(event);
     }
 
+    /**
+     * Résultat de la réservation du stock d'une commande, corrélé par orders-service sur l'ID de commande
+     */
+    public void publishStockReservation(Long orderId, String result,
+                                        List<StockReservationEvent.RejectedItem> rejectedItems, String reason) {
+        StockReservationEvent event = StockReservationEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType("STOCK_RESERVATION_RESULT")
+                .orderId(orderId)
+                .result(result)
+                .rejectedItems(rejectedItems)
+                .reason(reason)
+                .timestamp(LocalDateTime.now())
+                .source("products-service")
+                .version("1.0")
+                .build();
+
+        log.info("Publishing stock reservation result: {} for order ID: {}", result, orderId);
+        kafkaTemplate.send(STOCK_RESERVATIONS_TOPIC, orderId.toString(), event)
+                .whenComplete((sendResult, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish stock reservation result for order ID: {}", orderId, ex);
+                    }
+                });
+    }
+
     private void publishEvent(ProductEvent event) {
         try {
             log.info("Publishing product event: {} for product ID: {}", event.getEventType(), event.getProductId());
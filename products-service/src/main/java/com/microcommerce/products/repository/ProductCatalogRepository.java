@@ -0,0 +1,58 @@
+package com.microcommerce.products.repository;
+
+import com.microcommerce.products.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Parcours du catalogue actif par pagination par curseur (keyset) sur (propriété de tri, id) :
+ * chaque page part de la dernière position lue via les index partiels (propriété, id) WHERE active,
+ * si bien que la page 10 000 coûte autant que la première. Aucun COUNT n'est exécuté.
+ *
+ * La propriété de tri est interpolée dans la requête : l'appelant ne doit passer
+ * qu'une propriété de la liste blanche de ProductService.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductCatalogRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * @param afterId    ID du dernier produit de la page précédente, null pour la première page
+     * @param afterValue valeur de la propriété de tri de ce produit (ignorée pour un tri par id)
+     */
+    public List<Product> findActivePage(String property, boolean descending,
+                                        Long afterId, Object afterValue, int limit) {
+        String direction = descending ? "DESC" : "ASC";
+        String comparison = descending ? "<" : ">";
+        boolean byId = "id".equals(property);
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.active = true");
+        if (afterId != null) {
+            // Comparaison de lignes (valeur, id) : une seule borne de parcours de l'index composite
+            jpql.append(byId
+                    ? " AND p.id " + comparison + " :afterId"
+                    : " AND (p." + property + ", p.id) " + comparison + " (:afterValue, :afterId)");
+        }
+        jpql.append(" ORDER BY ");
+        if (!byId) {
+            jpql.append("p.").append(property).append(' ').append(direction).append(", ");
+        }
+        jpql.append("p.id ").append(direction);
+
+        TypedQuery<Product> query = entityManager.createQuery(jpql.toString(), Product.class)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!byId) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.getResultList();
+    }
+}
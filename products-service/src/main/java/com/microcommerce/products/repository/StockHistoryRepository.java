@@ -51,4 +51,9 @@ public interface StockHistoryRepository extends JpaRepository<StockHistory, Long
             @Param("productId") Long productId,
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Indique si un mouvement d'un type donné a déjà été enregistré pour la commande
+     */
+    boolean existsByOrderIdAndMovementType(Long orderId, StockHistory.MovementType movementType);
 }
@@ -0,0 +1,55 @@
+package com.microcommerce.products.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position dans le catalogue trié par (propriété de tri, id), transportée sous forme
+ * de jeton opaque (Base64 URL). Le jeton n'est valable que pour le tri qui l'a produit.
+ */
+final class ProductCursor {
+
+    final String property;
+    final boolean descending;
+    final long id;
+    // Valeur de la propriété de tri du dernier produit de la page (null pour un tri par id)
+    final Object value;
+
+    ProductCursor(String property, boolean descending, long id, Object value) {
+        this.property = property;
+        this.descending = descending;
+        this.id = id;
+        this.value = value;
+    }
+
+    String encode() {
+        // La valeur vient en dernier : un nom ou un SKU peut contenir le séparateur
+        String raw = property + "|" + (descending ? "desc" : "asc") + "|" + id + "|" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            String property = parts[0];
+            return new ProductCursor(property, "desc".equals(parts[1]), Long.parseLong(parts[2]),
+                    parseValue(property, parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    private static Object parseValue(String property, String value) {
+        return switch (property) {
+            case "id" -> null;
+            case "name", "sku" -> value;
+            case "price" -> new BigDecimal(value);
+            case "stockAvailable" -> Integer.valueOf(value);
+            case "createdAt", "updatedAt" -> LocalDateTime.parse(value);
+            default -> throw new IllegalArgumentException("Propriété de tri inconnue: " + property);
+        };
+    }
+}
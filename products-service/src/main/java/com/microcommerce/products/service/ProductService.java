@@ -3,6 +3,7 @@ package com.microcommerce.products.service;
 import com.microcommerce.products.dto.request.CreateProductRequest;
 import com.microcommerce.products.dto.request.StockUpdateRequest;
 import com.microcommerce.products.dto.request.UpdateProductRequest;
+import com.microcommerce.products.dto.response.CursorPageResponse;
 import com.microcommerce.products.dto.response.ProductResponse;
 import com.microcommerce.products.dto.response.StockHistoryResponse;
 import com.microcommerce.products.entity.Category;
@@ -12,10 +13,12 @@ import com.microcommerce.products.exception.InsufficientStockException;
 import com.microcommerce.products.exception.ProductNotFoundException;
 import com.microcommerce.products.exception.SkuAlreadyExistsException;
 import com.microcommerce.products.repository.CategoryRepository;
+import com.microcommerce.products.repository.ProductCatalogRepository;
 import com.microcommerce.products.repository.ProductRepository;
 import com.microcommerce.products.repository.StockHistoryRepository;
 import com.microcommerce.products.entity.StockHistory;
 import com.microcommerce.products.kafka.event.OrderEvent;
+import com.microcommerce.products.kafka.event.StockReservationEvent;
 import com.microcommerce.products.kafka.producer.ProductEventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +30,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,10 +44,14 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCatalogRepository productCatalogRepository;
     private final CategoryRepository categoryRepository;
     private final StockHistoryRepository stockHistoryRepository;
     private final ProductEventProducer productEventProducer;
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 100;
+
     // ===== CRUD Operations =====
 
     public ProductResponse createProduct(CreateProductRequest request) {
@@ -67,6 +79,7 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        productEventProducer.publishProductCreated(savedProduct);
         log.info("Produit créé avec succès: ID={}, SKU={}", savedProduct.getId(), savedProduct.getSku());
         return convertToResponse(savedProduct);
     }
@@ -113,6 +126,7 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        productEventProducer.publishProductUpdated(updatedProduct);
         log.info("Produit mis à jour avec succès: ID={}", updatedProduct.getId());
         return convertToResponse(updatedProduct);
     }
@@ -124,6 +138,7 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
         productRepository.delete(product);
+        productEventProducer.publishProductDeleted(product);
         log.info("Produit supprimé avec succès: ID={}", id);
     }
 
@@ -161,6 +176,7 @@ public class ProductService {
 
         product.setStockAvailable(newStock);
         Product updatedProduct = productRepository.save(product);
+        productEventProducer.publishStockUpdated(updatedProduct, oldStock, request.getMovementType());
 
         log.info("Stock mis à jour avec succès: ID={}, ancien stock: {}, nouveau stock: {}",
                 productId, oldStock, newStock);
@@ -188,10 +204,71 @@ public class ProductService {
 
     // ===== Search and Filtering =====
 
+    /**
+     * Catalogue actif par curseur sur (propriété de tri, id) : chaque page coûte le même prix,
+     * quelle que soit sa profondeur, et aucun total n'est calculé.
+     *
+     * @param cursor jeton nextCursor de la page précédente, absent pour la première page
+     * @param sort   propriété,direction ; ignoré si un curseur est fourni (le curseur porte son tri)
+     */
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findByActiveTrue(pageable)
-                .map(this::convertToResponse);
+    public CursorPageResponse<ProductResponse> getAllProducts(String cursor, int size, String sort) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        ProductCursor position = cursor != null && !cursor.isBlank()
+                ? ProductCursor.decode(cursor)
+                : parseCursorSort(sort);
+        if (!isValidSortProperty(position.property)) {
+            throw new IllegalArgumentException("Propriété de tri invalide. Utilisez des propriétés valides comme: id, name, price, stockAvailable, createdAt");
+        }
+        Long afterId = cursor != null && !cursor.isBlank() ? position.id : null;
+
+        List<Product> products = productCatalogRepository.findActivePage(
+                position.property, position.descending, afterId, position.value, limit + 1);
+
+        boolean hasNext = products.size() > limit;
+        List<Product> content = hasNext ? products.subList(0, limit) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = content.get(content.size() - 1);
+            nextCursor = new ProductCursor(position.property, position.descending, last.getId(),
+                    sortValue(last, position.property)).encode();
+        }
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .content(content.stream().map(this::convertToResponse).toList())
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Instantané léger du catalogue actif (sans catégorie), utilisé par orders-service
+     * pour initialiser son cache local au démarrage
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getCatalogSnapshot() {
+        return productRepository.findByActiveTrue().stream()
+                .map(this::convertToSnapshotResponse)
+                .toList();
+    }
+
+    /**
+     * Recherche groupée de produits actifs par IDs (une seule requête SQL),
+     * utilisée par le client de recherche produits d'orders-service
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Trop d'IDs demandés (maximum " + MAX_BATCH_SIZE + ")");
+        }
+        return productRepository.findByIdInAndActiveTrue(ids).stream()
+                .map(this::convertToSnapshotResponse)
+                .toList();
     }
 
     @Transactional(readOnly = true)
@@ -301,6 +378,28 @@ public class ProductService {
         }
     }
     
+    // Première page : tri demandé, sans position de départ
+    private ProductCursor parseCursorSort(String sort) {
+        if (sort == null || sort.trim().isEmpty()) {
+            return new ProductCursor("id", false, 0L, null);
+        }
+        String[] parts = sort.split(",");
+        String direction = parts.length > 1 ? parts[1].trim() : "asc";
+        return new ProductCursor(parts[0].trim(), "desc".equalsIgnoreCase(direction), 0L, null);
+    }
+
+    private static Object sortValue(Product product, String property) {
+        return switch (property) {
+            case "name" -> product.getName();
+            case "sku" -> product.getSku();
+            case "price" -> product.getPrice();
+            case "stockAvailable" -> product.getStockAvailable();
+            case "createdAt" -> product.getCreatedAt();
+            case "updatedAt" -> product.getUpdatedAt();
+            default -> null;
+        };
+    }
+
     private boolean isValidSortProperty(String property) {
         return List.of("id", "name", "price", "stockAvailable", "createdAt", "updatedAt", "sku").contains(property);
     }
@@ -331,51 +430,96 @@ public class ProductService {
                 .build();
     }
 
+    private ProductResponse convertToSnapshotResponse(Product product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .sku(product.getSku())
+                .price(product.getPrice())
+                .stockAvailable(product.getStockAvailable())
+                .imageUrl(product.getImageUrl())
+                .active(product.getActive())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+    }
+
     // ===== Order Event Processing =====
 
-    public void processOrderStockReduction(List<OrderEvent.OrderItemEvent> items, Long orderId) {
+    /**
+     * Réserve le stock de tous les articles d'une commande confirmée, en une transaction :
+     * soit tous les articles sont réservés, soit aucun (produit inconnu, inactif ou stock insuffisant).
+     * Un ORDER_CONFIRMED rejoué pour une commande déjà réservée ne réserve rien de plus.
+     *
+     * @return les articles non réservables, vide si la commande est réservée
+     */
+    public List<StockReservationEvent.RejectedItem> processOrderStockReduction(List<OrderEvent.OrderItemEvent> items, Long orderId) {
         log.info("Traitement de la réduction de stock pour la commande ID: {}", orderId);
-        
-        for (OrderEvent.OrderItemEvent item : items) {
-            try {
-                Product product = productRepository.findById(item.getProductId())
-                        .orElseThrow(() -> new ProductNotFoundException(item.getProductId()));
-                
-                int previousStock = product.getStockAvailable();
-                
-                if (!product.canReserve(item.getQuantity())) {
-                    log.error("Stock insuffisant pour le produit ID: {}, stock disponible: {}, quantité demandée: {}", 
-                             item.getProductId(), previousStock, item.getQuantity());
-                    
-                    publishStockInsufficientEvent(orderId, item, previousStock);
-                    continue;
-                }
-                
-                product.reserveStock(item.getQuantity());
-                productRepository.save(product);
-                
-                createStockHistory(
-                    product.getId(), 
-                    StockHistory.MovementType.ORDER_REDUCTION, 
-                    item.getQuantity(), 
-                    previousStock, 
-                    product.getStockAvailable(), 
-                    orderId, 
-                    "Réduction automatique suite à validation commande #" + orderId
-                );
-                
-                log.info("Stock réduit avec succès pour le produit ID: {}, ancien stock: {}, nouveau stock: {}", 
-                        product.getId(), previousStock, product.getStockAvailable());
-                        
-            } catch (Exception e) {
-                log.error("Erreur lors de la réduction de stock pour le produit ID: {}", item.getProductId(), e);
-                publishStockErrorEvent(orderId, item, e.getMessage());
+
+        if (stockHistoryRepository.existsByOrderIdAndMovementType(orderId, StockHistory.MovementType.ORDER_REDUCTION)) {
+            log.info("Stock déjà réservé pour la commande ID: {}, événement rejoué ignoré", orderId);
+            return List.of();
+        }
+
+        Map<Long, Integer> requested = new TreeMap<>();
+        items.forEach(item -> requested.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        Map<Long, Product> products = productRepository.findAllByIdForUpdate(requested.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<StockReservationEvent.RejectedItem> rejected = new ArrayList<>();
+        requested.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null || !Boolean.TRUE.equals(product.getActive()) || !product.canReserve(quantity)) {
+                int available = product != null && Boolean.TRUE.equals(product.getActive()) ? product.getStockAvailable() : 0;
+                log.warn("Stock insuffisant pour le produit ID: {}, stock disponible: {}, quantité demandée: {}",
+                        productId, available, quantity);
+                rejected.add(StockReservationEvent.RejectedItem.builder()
+                        .productId(productId)
+                        .requested(quantity)
+                        .available(available)
+                        .build());
             }
+        });
+
+        if (!rejected.isEmpty()) {
+            log.warn("Réservation refusée pour la commande ID: {}, {} article(s) indisponible(s)", orderId, rejected.size());
+            return rejected;
         }
+
+        requested.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            int previousStock = product.getStockAvailable();
+
+            product.reserveStock(quantity);
+            productRepository.save(product);
+            productEventProducer.publishStockUpdated(product, previousStock, "ORDER_REDUCTION");
+
+            createStockHistory(
+                product.getId(), 
+                StockHistory.MovementType.ORDER_REDUCTION, 
+                quantity, 
+                previousStock, 
+                product.getStockAvailable(), 
+                orderId, 
+                "Réduction automatique suite à validation commande #" + orderId
+            );
+
+            log.info("Stock réduit avec succès pour le produit ID: {}, ancien stock: {}, nouveau stock: {}", 
+                    product.getId(), previousStock, product.getStockAvailable());
+        });
+
+        return List.of();
     }
 
     public void restoreOrderStock(List<OrderEvent.OrderItemEvent> items, Long orderId) {
         log.info("Restauration du stock pour la commande annulée ID: {}", orderId);
+
+        // Seul un stock effectivement réservé, et pas encore restauré, est rendu
+        if (!stockHistoryRepository.existsByOrderIdAndMovementType(orderId, StockHistory.MovementType.ORDER_REDUCTION)
+                || stockHistoryRepository.existsByOrderIdAndMovementType(orderId, StockHistory.MovementType.ORDER_CANCELLATION)) {
+            log.info("Aucun stock à restaurer pour la commande ID: {}", orderId);
+            return;
+        }
         
         for (OrderEvent.OrderItemEvent item : items) {
             try {
@@ -386,6 +530,7 @@ public class ProductService {
                 
                 product.addStock(item.getQuantity());
                 productRepository.save(product);
+                productEventProducer.publishStockUpdated(product, previousStock, "ORDER_CANCELLATION");
                 
                 createStockHistory(
                     product.getId(), 
@@ -422,27 +567,4 @@ public class ProductService {
         stockHistoryRepository.save(stockHistory);
         log.debug("Historique de stock créé: {}", stockHistory);
     }
-
-    private void publishStockInsufficientEvent(Long orderId, OrderEvent.OrderItemEvent item, Integer availableStock) {
-        try {
-            // Créer l'événement de stock insuffisant
-            // TODO: Implémenter la publication d'événement vers le service orders
-            log.warn("Publication d'événement STOCK_INSUFFICIENT pour commande: {}, produit: {}, stock disponible: {}", 
-                    orderId, item.getProductId(), availableStock);
-        } catch (Exception e) {
-            log.error("Erreur lors de la publication de l'événement STOCK_INSUFFICIENT", e);
-        }
-    }
-
-
-    private void publishStockErrorEvent(Long orderId, OrderEvent.OrderItemEvent item, String errorMessage) {
-        try {
-            // Créer l'événement d'erreur
-            // TODO: Implémenter la publication d'événement vers le service orders
-            log.error("Publication d'événement STOCK_ERROR pour commande: {}, produit: {}, erreur: {}", 
-                     orderId, item.getProductId(), errorMessage);
-        } catch (Exception e) {
-            log.error("Erreur lors de la publication de l'événement STOCK_ERROR", e);
-        }
-    }
 }
@@ -0,0 +1,69 @@
+package com.microcommerce.products.kafka.consumer;
+
+import com.microcommerce.products.kafka.event.OrderEvent;
+import com.microcommerce.products.kafka.event.StockReservationEvent;
+import com.microcommerce.products.kafka.producer.ProductEventProducer;
+import com.microcommerce.products.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEventConsumerTest {
+
+    private static final long ORDER_ID = 1000L;
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductEventProducer productEventProducer = mock(ProductEventProducer.class);
+    private final OrderEventConsumer consumer = new OrderEventConsumer(productService, productEventProducer);
+
+    @Test
+    void publishesReservedWhenEveryItemIsReserved() {
+        when(productService.processOrderStockReduction(anyList(), anyLong())).thenReturn(List.of());
+
+        consume("ORDER_CONFIRMED");
+
+        verify(productEventProducer).publishStockReservation(eq(ORDER_ID), eq("RESERVED"), eq(List.of()), isNull());
+    }
+
+    @Test
+    void publishesRejectedWithTheMissingItems() {
+        List<StockReservationEvent.RejectedItem> rejected = List.of(StockReservationEvent.RejectedItem.builder()
+                .productId(1L).requested(2).available(1).build());
+        when(productService.processOrderStockReduction(anyList(), anyLong())).thenReturn(rejected);
+
+        consume("STOCK_RESERVATION_REQUESTED");
+
+        verify(productEventProducer).publishStockReservation(eq(ORDER_ID), eq("REJECTED"), eq(rejected), any());
+    }
+
+    @Test
+    void publishesErrorRatherThanRejectedOnAnUnexpectedFailure() {
+        // ERROR n'est pas un refus : orders-service laisse la commande PENDING et renverra la demande
+        when(productService.processOrderStockReduction(anyList(), anyLong()))
+                .thenThrow(new CannotAcquireLockException("verrou"));
+
+        consume("ORDER_CONFIRMED");
+
+        verify(productEventProducer).publishStockReservation(eq(ORDER_ID), eq("ERROR"), eq(List.of()), any());
+    }
+
+    private void consume(String eventType) {
+        OrderEvent event = OrderEvent.builder()
+                .eventType(eventType)
+                .orderId(ORDER_ID)
+                .items(List.of(OrderEvent.OrderItemEvent.builder().productId(1L).quantity(2).build()))
+                .build();
+        consumer.handleOrderEvent(event, "order-events", 0, ORDER_ID, mock(Acknowledgment.class));
+    }
+}
@@ -0,0 +1,62 @@
+package com.microcommerce.products.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void roundTripsEachSortProperty() {
+        assertRoundTrip("id", null);
+        assertRoundTrip("name", "Clavier | mécanique");
+        assertRoundTrip("sku", "SKU-001");
+        assertRoundTrip("price", new BigDecimal("19.90"));
+        assertRoundTrip("stockAvailable", 12);
+        assertRoundTrip("createdAt", LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000));
+        assertRoundTrip("updatedAt", LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+
+    @Test
+    void keepsTheDirectionAndId() {
+        ProductCursor decoded = ProductCursor.decode(new ProductCursor("name", true, 42L, "Écran").encode());
+
+        assertThat(decoded.descending).isTrue();
+        assertThat(decoded.id).isEqualTo(42L);
+        assertThat(ProductCursor.decode(new ProductCursor("name", false, 42L, "Écran").encode()).descending).isFalse();
+    }
+
+    @Test
+    void encodesAsUrlSafeBase64WithoutPadding() {
+        assertThat(new ProductCursor("name", false, 1L, "Souris ?").encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[] {"", "%%%", encode("name|asc"), encode("name|asc|abc|x"),
+                encode("price|asc|1|pas-un-prix"), encode("inconnue|asc|1|x")}) {
+            assertThatThrownBy(() -> ProductCursor.decode(token))
+                    .as("jeton %s", token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Curseur de pagination invalide");
+        }
+    }
+
+    private static void assertRoundTrip(String property, Object value) {
+        ProductCursor decoded = ProductCursor.decode(new ProductCursor(property, false, 7L, value).encode());
+
+        assertThat(decoded.property).isEqualTo(property);
+        assertThat(decoded.id).isEqualTo(7L);
+        assertThat(decoded.value).as(property).isEqualTo(value);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
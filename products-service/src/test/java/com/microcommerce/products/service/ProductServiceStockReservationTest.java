@@ -0,0 +1,152 @@
+package com.microcommerce.products.service;
+
+import com.microcommerce.products.entity.Product;
+import com.microcommerce.products.entity.StockHistory;
+import com.microcommerce.products.kafka.event.OrderEvent;
+import com.microcommerce.products.kafka.event.StockReservationEvent;
+import com.microcommerce.products.kafka.producer.ProductEventProducer;
+import com.microcommerce.products.repository.CategoryRepository;
+import com.microcommerce.products.repository.ProductCatalogRepository;
+import com.microcommerce.products.repository.ProductRepository;
+import com.microcommerce.products.repository.StockHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Réservation et restitution du stock d'une commande (ORDER_CONFIRMED, STOCK_RESERVATION_REQUESTED,
+ * ORDER_CANCELLED). L'historique de stock est tenu en mémoire : c'est lui qui rend la réservation
+ * et la restitution idempotentes.
+ */
+class ProductServiceStockReservationTest {
+
+    private static final long ORDER_ID = 1000L;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockHistoryRepository stockHistoryRepository = mock(StockHistoryRepository.class);
+    private final ProductService productService = new ProductService(productRepository,
+            mock(ProductCatalogRepository.class), mock(CategoryRepository.class),
+            stockHistoryRepository, mock(ProductEventProducer.class));
+
+    private final List<StockHistory> history = new ArrayList<>();
+    private Map<Long, Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = List.of(product(1L, 5), product(2L, 3)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        when(productRepository.findAllByIdForUpdate(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .map(products::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(products.get(invocation.<Long>getArgument(0))));
+        when(stockHistoryRepository.save(any(StockHistory.class))).thenAnswer(invocation -> {
+            history.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(stockHistoryRepository.existsByOrderIdAndMovementType(anyLong(), any())).thenAnswer(invocation ->
+                history.stream().anyMatch(movement -> movement.getOrderId().equals(invocation.getArgument(0))
+                        && movement.getMovementType() == invocation.getArgument(1)));
+    }
+
+    @Test
+    void reservesEveryItemOfTheOrder() {
+        List<StockReservationEvent.RejectedItem> rejected =
+                productService.processOrderStockReduction(List.of(item(1L, 2), item(2L, 3)), ORDER_ID);
+
+        assertThat(rejected).isEmpty();
+        assertThat(stock(1L)).isEqualTo(3);
+        assertThat(stock(2L)).isEqualTo(0);
+        assertThat(history).extracting(StockHistory::getMovementType)
+                .containsOnly(StockHistory.MovementType.ORDER_REDUCTION);
+    }
+
+    @Test
+    void aReplayedOrderConfirmedReservesNothingMore() {
+        productService.processOrderStockReduction(List.of(item(1L, 2)), ORDER_ID);
+
+        List<StockReservationEvent.RejectedItem> rejected =
+                productService.processOrderStockReduction(List.of(item(1L, 2)), ORDER_ID);
+
+        assertThat(rejected).isEmpty();
+        assertThat(stock(1L)).isEqualTo(3);
+        assertThat(history).hasSize(1);
+    }
+
+    @Test
+    void rejectsTheWholeOrderWhenOneItemIsShort() {
+        List<StockReservationEvent.RejectedItem> rejected =
+                productService.processOrderStockReduction(List.of(item(1L, 2), item(2L, 4)), ORDER_ID);
+
+        assertThat(rejected).singleElement().satisfies(item -> {
+            assertThat(item.getProductId()).isEqualTo(2L);
+            assertThat(item.getRequested()).isEqualTo(4);
+            assertThat(item.getAvailable()).isEqualTo(3);
+        });
+        assertThat(stock(1L)).isEqualTo(5);
+        assertThat(stock(2L)).isEqualTo(3);
+        assertThat(history).isEmpty();
+    }
+
+    @Test
+    void aRetryAfterARejectionIsEvaluatedAgain() {
+        productService.processOrderStockReduction(List.of(item(2L, 4)), ORDER_ID);
+        products.get(2L).addStock(1);
+
+        // Un refus ne laisse aucune trace : la nouvelle demande n'est pas prise pour un rejeu
+        List<StockReservationEvent.RejectedItem> rejected =
+                productService.processOrderStockReduction(List.of(item(2L, 4)), ORDER_ID);
+
+        assertThat(rejected).isEmpty();
+        assertThat(stock(2L)).isEqualTo(0);
+    }
+
+    @Test
+    void aCancellationBeforeTheReservationRestoresNothing() {
+        productService.restoreOrderStock(List.of(item(1L, 2)), ORDER_ID);
+
+        assertThat(stock(1L)).isEqualTo(5);
+        assertThat(history).isEmpty();
+    }
+
+    @Test
+    void aCancellationRestoresTheReservedStockOnce() {
+        productService.processOrderStockReduction(List.of(item(1L, 2)), ORDER_ID);
+
+        productService.restoreOrderStock(List.of(item(1L, 2)), ORDER_ID);
+        productService.restoreOrderStock(List.of(item(1L, 2)), ORDER_ID);
+
+        assertThat(stock(1L)).isEqualTo(5);
+        assertThat(history).extracting(StockHistory::getMovementType).containsExactly(
+                StockHistory.MovementType.ORDER_REDUCTION, StockHistory.MovementType.ORDER_CANCELLATION);
+    }
+
+    private int stock(Long productId) {
+        return products.get(productId).getStockAvailable();
+    }
+
+    private static Product product(Long id, int stock) {
+        return Product.builder().id(id).name("Produit " + id).sku("SKU-" + id).stockAvailable(stock).build();
+    }
+
+    private static OrderEvent.OrderItemEvent item(Long productId, int quantity) {
+        return OrderEvent.OrderItemEvent.builder().productId(productId).quantity(quantity).build();
+    }
+}